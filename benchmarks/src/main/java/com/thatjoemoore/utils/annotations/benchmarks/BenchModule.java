@@ -0,0 +1,32 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations.benchmarks;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * Marks packages in the synthetic source tree.  Unlike the other synthetic annotations this is a real class, compiled
+ * into the benchmarks, so it can be passed to helpers like
+ * {@link com.thatjoemoore.utils.annotations.ElementsExt#getFirstAnnotatedPackage} that take an annotation class.  The
+ * in-memory compiler finds it on the benchmark's class path.
+ */
+@Target(ElementType.PACKAGE)
+public @interface BenchModule {
+    String value();
+}
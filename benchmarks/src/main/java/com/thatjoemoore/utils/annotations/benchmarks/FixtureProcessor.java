@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations.benchmarks;
+
+import com.thatjoemoore.utils.annotations.AbstractAnalyzer;
+import com.thatjoemoore.utils.annotations.AbstractWriter;
+import com.thatjoemoore.utils.annotations.AnalyzeAndWriteProcessor;
+import com.thatjoemoore.utils.annotations.ElementsExt;
+import com.thatjoemoore.utils.annotations.TypesExt;
+
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A typical small processor: for every {@code @bench.Generate} type it reads the annotation's values, finds the
+ * nearest {@link BenchModule} package and looks at each property's type, then writes one index of everything it found.
+ */
+@SupportedAnnotationTypes(SyntheticSources.GENERATE)
+public class FixtureProcessor extends AnalyzeAndWriteProcessor<List<String>> {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    protected Analyzer<List<String>> getAnalyzer() {
+        return new IndexAnalyzer();
+    }
+
+    @Override
+    protected Writer<List<String>> getWriter() {
+        return new IndexWriter();
+    }
+
+    private static final class IndexAnalyzer extends AbstractAnalyzer<List<String>> {
+        @Override
+        public List<String> analyze(Set<? extends TypeElement> annotations) {
+            List<String> lines = new ArrayList<>();
+            for (TypeElement annotation : annotations) {
+                for (TypeElement type : ElementFilter.typesIn(roundEnv().getElementsAnnotatedWith(annotation))) {
+                    lines.add(describe(type, mirror(type, annotation)));
+                }
+            }
+            return lines;
+        }
+
+        private String describe(TypeElement type, AnnotationMirror generate) {
+            StringBuilder line = new StringBuilder(type.getQualifiedName());
+            AnnotationValue value = ElementsExt.annotationValue(generate, "value", elements());
+            AnnotationValue priority = ElementsExt.annotationValue(generate, "priority", elements());
+            line.append(' ').append(value == null ? "" : value.getValue())
+                    .append(' ').append(priority == null ? 0 : priority.getValue());
+
+            PackageElement module = ElementsExt.getFirstAnnotatedPackage(type, BenchModule.class, elements());
+            if (module != null) {
+                line.append(' ').append(module.getQualifiedName());
+            }
+
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                line.append(' ').append(method.getSimpleName()).append(':')
+                        .append(TypesExt.notPrimitive(types(), method.getReturnType()));
+            }
+            return line.toString();
+        }
+
+        private static AnnotationMirror mirror(Element element, TypeElement annotation) {
+            for (AnnotationMirror each : element.getAnnotationMirrors()) {
+                if (each.getAnnotationType().asElement().equals(annotation)) {
+                    return each;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class IndexWriter extends AbstractWriter<List<String>> {
+        @Override
+        public boolean write(List<String> lines) {
+            if (lines.isEmpty()) {
+                return true;
+            }
+            List<Element> originating = new ArrayList<>(lines.size());
+            for (String each : lines) {
+                originating.add(elements().getTypeElement(each.substring(0, each.indexOf(' '))));
+            }
+            try {
+                FileObject file = filer().createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/bench/index.txt",
+                        originating.toArray(new Element[originating.size()]));
+                try (java.io.Writer out = file.openWriter()) {
+                    for (String each : lines) {
+                        out.write(each);
+                        out.write('\n');
+                    }
+                }
+            } catch (IOException ex) {
+                logger().fatal("Unable to write index: " + ex);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations.benchmarks;
+
+import com.thatjoemoore.utils.annotations.ElementsExt;
+import com.thatjoemoore.utils.annotations.TypesExt;
+import com.thatjoemoore.utils.annotations.test.Analysis;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link ElementsExt} and {@link TypesExt} helpers against a real compiler model, that of
+ * a compilation that has been parsed and attributed but not generated.  Each operation runs the
+ * helper once for every type (or every method's return type) in the synthetic source tree, so divide by
+ * {@code types} for the cost of one call.  Run it with {@code -prof gc} to see what each helper allocates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelpersBenchmark {
+
+    @Param({"1000"})
+    public int types;
+
+    private Elements elements;
+    private Types typeUtils;
+    private final List<TypeElement> roots = new ArrayList<>();
+    private final List<AnnotationMirror> mirrors = new ArrayList<>();
+    private final List<TypeMirror> returnTypes = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        Analysis analysis = Analysis.analyze(SyntheticSources.generate(types));
+        elements = analysis.getElements();
+        typeUtils = analysis.getTypes();
+        for (int i = 0; i < types; i++) {
+            TypeElement type = elements.getTypeElement(SyntheticSources.typeName(i));
+            roots.add(type);
+            mirrors.add(type.getAnnotationMirrors().get(0));
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                returnTypes.add(method.getReturnType());
+            }
+        }
+    }
+
+    @Benchmark
+    public void getPackages(Blackhole blackhole) {
+        for (TypeElement each : roots) {
+            blackhole.consume(ElementsExt.getPackages(each, elements));
+        }
+    }
+
+    @Benchmark
+    public void getFirstAnnotatedPackage(Blackhole blackhole) {
+        for (TypeElement each : roots) {
+            blackhole.consume(ElementsExt.getFirstAnnotatedPackage(each, BenchModule.class, elements));
+        }
+    }
+
+    @Benchmark
+    public void annotationValue(Blackhole blackhole) {
+        for (AnnotationMirror each : mirrors) {
+            blackhole.consume(ElementsExt.annotationValue(each, "priority", elements));
+        }
+    }
+
+    @Benchmark
+    public void annotationValues(Blackhole blackhole) {
+        for (AnnotationMirror each : mirrors) {
+            blackhole.consume(ElementsExt.annotationValues(each, elements, "value", "priority", "with"));
+        }
+    }
+
+    @Benchmark
+    public void notPrimitive(Blackhole blackhole) {
+        for (TypeMirror each : returnTypes) {
+            blackhole.consume(TypesExt.notPrimitive(typeUtils, each));
+        }
+    }
+
+    @Benchmark
+    public void maybePrimitive(Blackhole blackhole) {
+        for (TypeMirror each : returnTypes) {
+            blackhole.consume(TypesExt.maybePrimitive(typeUtils, each));
+        }
+    }
+
+    @Benchmark
+    public void isUnresolved(Blackhole blackhole) {
+        for (TypeMirror each : returnTypes) {
+            blackhole.consume(TypesExt.isUnresolved(each));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations.benchmarks;
+
+import com.thatjoemoore.utils.annotations.test.Compilation;
+import com.thatjoemoore.utils.annotations.test.InMemoryCompiler;
+import org.openjdk.jmh.annotations.*;
+
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles a synthetic source tree in memory, with and without {@link FixtureProcessor}, so the difference between the
+ * two is the cost of running the processor pipeline.  Run it with the GC profiler to see allocations as well:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar PipelineBenchmark -prof gc
+ * </pre>
+ * The 100k tree needs a few gigabytes of heap, which the fork is given.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PipelineBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int types;
+
+    private InMemoryCompiler compiler;
+    private List<JavaFileObject> sources;
+
+    @Setup
+    public void setUp() {
+        compiler = new InMemoryCompiler();
+        sources = SyntheticSources.generate(types);
+    }
+
+    @Benchmark
+    public Compilation compile() {
+        return check(compiler.compile(sources));
+    }
+
+    @Benchmark
+    public Compilation compileAndProcess() {
+        Compilation result = check(compiler.compile(sources, new FixtureProcessor()));
+        if (result.getResource(StandardLocation.CLASS_OUTPUT, "META-INF/bench/index.txt") == null) {
+            throw new IllegalStateException("FixtureProcessor didn't write its index");
+        }
+        return result;
+    }
+
+    private static Compilation check(Compilation result) {
+        if (!result.succeeded()) {
+            throw new IllegalStateException("Compilation failed: " + result.getDiagnostics());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thatjoemoore.utils.annotations.benchmarks;
+
+import com.thatjoemoore.utils.annotations.AbstractShardedAnalyzer;
+import com.thatjoemoore.utils.annotations.AnalyzeAndWriteProcessor;
+import com.thatjoemoore.utils.annotations.AnnotationSnapshot;
+import com.thatjoemoore.utils.annotations.MemberSnapshot;
+import com.thatjoemoore.utils.annotations.ShardedAnalysis;
+import com.thatjoemoore.utils.annotations.TypeSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Measures how sharded analysis scales with the number of worker threads.  {@code parallelism=1} runs the analyzer
+ * inline, the same way {@link AnalyzeAndWriteProcessor} does, so it is the serial baseline the others are compared to.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar ShardedAnalysisBenchmark -p parallelism=1,2,4,8,16
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShardedAnalysisBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int parallelism;
+
+    @Param({"20000"})
+    public int types;
+
+    @Param({"20"})
+    public int membersPerType;
+
+    private List<TypeSnapshot> roots;
+    private ForkJoinPool pool;
+    private final ChecksumAnalyzer analyzer = new ChecksumAnalyzer();
+
+    @Setup
+    public void setUp() {
+        roots = new ArrayList<>(types);
+        for (int i = 0; i < types; i++) {
+            List<MemberSnapshot> members = new ArrayList<>(membersPerType);
+            for (int m = 0; m < membersPerType; m++) {
+                members.add(new MemberSnapshot("property" + m, ElementKind.METHOD, EnumSet.of(Modifier.PUBLIC, Modifier.ABSTRACT),
+                        Collections.<String>emptyList(), "java.util.List<java.lang.String>", Collections.singletonList("arg"),
+                        Collections.singletonList("int"), false, Collections.<String>emptyList(),
+                        null, Collections.<AnnotationSnapshot>emptyList()));
+            }
+            roots.add(new TypeSnapshot("com.example.gen.Type" + i, "com.example.gen.Type" + i, "Type" + i,
+                    ElementKind.INTERFACE, EnumSet.of(Modifier.PUBLIC), Collections.<String>emptyList(), null,
+                    Collections.<String>emptyList(),
+                    Collections.<AnnotationSnapshot>emptyList(), members, Collections.<TypeSnapshot>emptyList()));
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long analyze() {
+        if (parallelism == 1) {
+            return analyzer.merge(Collections.singletonList(analyzer.analyze(roots)));
+        }
+        return analyzer.merge(ShardedAnalysis.analyze(pool, roots, analyzer));
+    }
+
+    /**
+     * Stands in for real analysis by rendering a signature for every member and checksumming it.  The benchmark makes
+     * its snapshots itself, so only the analysis half is measured.
+     */
+    private static final class ChecksumAnalyzer extends AbstractShardedAnalyzer<Long, Long> {
+        @Override
+        public Long analyze(List<TypeSnapshot> shard) {
+            CRC32 crc = new CRC32();
+            StringBuilder signature = new StringBuilder();
+            for (TypeSnapshot type : shard) {
+                for (MemberSnapshot member : type.getMembers()) {
+                    signature.setLength(0);
+                    signature.append(type.getQualifiedName()).append('#').append(member.getName())
+                            .append(member.getParameterTypes()).append(':').append(member.getType())
+                            .append(member.getModifiers());
+                    crc.update(signature.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return crc.getValue();
+        }
+
+        @Override
+        public Long merge(List<Long> partials) {
+            long result = 0;
+            for (Long each : partials) {
+                result = 31 * result + each;
+            }
+            return result;
+        }
+    }
+}
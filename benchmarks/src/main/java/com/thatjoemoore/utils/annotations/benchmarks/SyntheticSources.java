@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations.benchmarks;
+
+import com.thatjoemoore.utils.annotations.test.InMemoryCompiler;
+
+import javax.tools.JavaFileObject;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates a source tree of annotated interfaces for the benchmarks to compile.  Types are spread over packages of
+ * {@value #TYPES_PER_PACKAGE}; every tenth package is annotated with {@link BenchModule}, as is their common parent,
+ * so package lookups walk a realistic number of levels.
+ */
+final class SyntheticSources {
+    private SyntheticSources() {}
+
+    static final int TYPES_PER_PACKAGE = 100;
+
+    static final String GENERATE = "bench.Generate";
+    static final String PROPERTY = "bench.Property";
+    private static final String MODULE = BenchModule.class.getName();
+
+    static String typeName(int index) {
+        return "bench.gen.p" + index / TYPES_PER_PACKAGE + ".Type" + index;
+    }
+
+    static List<JavaFileObject> generate(int types) {
+        List<JavaFileObject> sources = new ArrayList<>(types + types / TYPES_PER_PACKAGE / 10 + 4);
+        sources.add(InMemoryCompiler.source(GENERATE, ""
+                + "package bench;\n"
+                + "@java.lang.annotation.Target(java.lang.annotation.ElementType.TYPE)\n"
+                + "public @interface Generate {\n"
+                + "    String value() default \"\";\n"
+                + "    int priority() default 0;\n"
+                + "    Class<?>[] with() default {};\n"
+                + "}\n"));
+        sources.add(InMemoryCompiler.source(PROPERTY, ""
+                + "package bench;\n"
+                + "@java.lang.annotation.Target(java.lang.annotation.ElementType.METHOD)\n"
+                + "public @interface Property {\n"
+                + "    boolean required() default false;\n"
+                + "}\n"));
+        sources.add(InMemoryCompiler.source("bench.gen.package-info", ""
+                + "@" + MODULE + "(\"all\")\n"
+                + "package bench.gen;\n"));
+
+        for (int p = 0; p * TYPES_PER_PACKAGE < types; p++) {
+            if (p % 10 == 0) {
+                sources.add(InMemoryCompiler.source("bench.gen.p" + p + ".package-info", ""
+                        + "@" + MODULE + "(\"p" + p + "\")\n"
+                        + "package bench.gen.p" + p + ";\n"));
+            }
+        }
+
+        for (int i = 0; i < types; i++) {
+            String name = typeName(i);
+            sources.add(InMemoryCompiler.source(name, ""
+                    + "package bench.gen.p" + i / TYPES_PER_PACKAGE + ";\n"
+                    + "@bench.Generate(value = \"Type" + i + "\", priority = " + i % 7 + ", with = java.util.List.class)\n"
+                    + "public interface Type" + i + " {\n"
+                    + "    @bench.Property(required = true) String name();\n"
+                    + "    @bench.Property int count();\n"
+                    + "    @bench.Property java.util.List<String> tags();\n"
+                    + "    long[] values();\n"
+                    + "}\n"));
+        }
+        return sources;
+    }
+}
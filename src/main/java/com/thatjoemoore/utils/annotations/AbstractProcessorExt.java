@@ -26,6 +26,12 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -38,27 +44,193 @@ public abstract class AbstractProcessorExt extends AbstractProcessor {
     @Override
     public synchronized void init(@Nonnull ProcessingEnvironment processingEnv) {
         super.init(processingEnv);
-        log = new Logger(processingEnv.getMessager());
+        log = new ConcurrentLogger(processingEnv.getMessager(), logBuffered(processingEnv), logLevel(processingEnv));
+        log.setAggregating(logAggregate(processingEnv));
+        log.setLimits(logLimit(processingEnv, ProcessorOptions.LOG_MAX_PER_LEVEL),
+                logLimit(processingEnv, ProcessorOptions.LOG_MAX_PER_ELEMENT),
+                logLimit(processingEnv, ProcessorOptions.LOG_MAX_PER_ANNOTATION_TYPE));
+        report = logReport(processingEnv);
+        log.setReport(report);
+        timingMode = timingMode(processingEnv);
+        timer = timingMode == ProcessingTimer.Mode.OFF ? null : new ProcessingTimer();
     }
 
     @Override
     public final boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        ElementsExt.newRound(roundEnv, elements());
+        supertypes = null;
         try {
-            return processAbortable(annotations, roundEnv);
+            ProcessingTimer timer = this.timer;
+            if (timer == null) {
+                return processRound(annotations, roundEnv);
+            }
+            timer.beginRound();
+            try {
+                return processRound(annotations, roundEnv);
+            } finally {
+                reportTiming(timer.endRound(roundEnv.processingOver()), roundEnv.processingOver());
+            }
+        } finally {
+            if (roundEnv.processingOver()) {
+                // Only once the last round's timing has been logged, so the report includes it
+                if (report != null) {
+                    report.close();
+                }
+                ElementsExt.release(elements());
+            }
+        }
+    }
+
+    private boolean processRound(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        try {
+            boolean claimed = processAbortable(annotations, roundEnv);
+            log.drain();
+            log.abortIfFatal();
+            return claimed;
+        } catch (AbortProcessingException ex) {
+            log.drainQuietly();
+            log.flush();
+            if (!ex.reported) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, ex.getMessage(), ex.element, ex.annotation, ex.value);
+            }
+            return false;
+        } finally {
+            log.endRound();
+        }
+    }
+
+    /**
+     * Adds the {@link ProcessorOptions} shared by every processor to the ones declared on this processor.
+     */
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new HashSet<>(super.getSupportedOptions());
+        options.addAll(ProcessorOptions.ALL);
+        return Collections.unmodifiableSet(options);
+    }
+
+    private static boolean logBuffered(ProcessingEnvironment processingEnv) {
+        try {
+            return ProcessorOptions.booleanOption(processingEnv, ProcessorOptions.LOG_BUFFERED, false);
+        } catch (AbortProcessingException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, ex.getMessage() + "; logging is not buffered");
+            return false;
+        }
+    }
+
+    private static boolean logAggregate(ProcessingEnvironment processingEnv) {
+        try {
+            return ProcessorOptions.booleanOption(processingEnv, ProcessorOptions.LOG_AGGREGATE, false);
         } catch (AbortProcessingException ex) {
-            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, ex.getMessage(), ex.element, ex.annotation, ex.value);
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, ex.getMessage() + "; fatal errors are not aggregated");
             return false;
         }
     }
 
+    private DiagnosticReport logReport(ProcessingEnvironment processingEnv) {
+        String value = ProcessorOptions.stringOption(processingEnv, ProcessorOptions.LOG_REPORT, null);
+        if (value == null) {
+            return null;
+        }
+        DiagnosticReport.Format format = DiagnosticReport.Format.of(value);
+        if (format == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Option -A" + ProcessorOptions.LOG_REPORT + " must be jsonl or sarif, not '" + value + "'; there is no report");
+            return null;
+        }
+        return new DiagnosticReport(processingEnv.getFiler(), processingEnv.getMessager(), format, getClass().getName());
+    }
+
+    private static int logLimit(ProcessingEnvironment processingEnv, String option) {
+        try {
+            long value = ProcessorOptions.longOption(processingEnv, option, 0);
+            return (int) Math.max(0, Math.min(value, Integer.MAX_VALUE));
+        } catch (AbortProcessingException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, ex.getMessage() + "; there is no limit");
+            return 0;
+        }
+    }
+
+    private static Logger.Level logLevel(ProcessingEnvironment processingEnv) {
+        String value = ProcessorOptions.stringOption(processingEnv, ProcessorOptions.LOG_LEVEL, null);
+        if (value == null) {
+            return Logger.Level.OTHER;
+        }
+        try {
+            return Logger.Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Option -A" + ProcessorOptions.LOG_LEVEL + " must be error, mandatory_warning, warning, note or other, not '"
+                            + value + "'; logging everything");
+            return Logger.Level.OTHER;
+        }
+    }
+
+    private static ProcessingTimer.Mode timingMode(ProcessingEnvironment processingEnv) {
+        String value = ProcessorOptions.stringOption(processingEnv, ProcessorOptions.TIMING, null);
+        if (value == null) {
+            return ProcessingTimer.Mode.OFF;
+        }
+        ProcessingTimer.Mode mode = ProcessingTimer.Mode.of(value);
+        if (mode == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Option -A" + ProcessorOptions.TIMING + " must be off, log or json, not '" + value + "'; timing is off");
+            return ProcessingTimer.Mode.OFF;
+        }
+        return mode;
+    }
+
+    private void reportTiming(ProcessingTimer.Round round, boolean processingOver) {
+        String processor = getClass().getName();
+        if (timingMode == ProcessingTimer.Mode.LOG) {
+            log.note(processor + " " + round);
+            log.flush();
+        } else if (timingMode == ProcessingTimer.Mode.JSON && processingOver) {
+            String name = "annotationutils-timing/" + processor + ".json";
+            try {
+                FileObject file = processingEnv.getFiler().createResource(StandardLocation.SOURCE_OUTPUT, "", name);
+                try (Writer out = file.openWriter()) {
+                    timer.writeJson(processor, out);
+                }
+            } catch (IOException ex) {
+                log.warning("Unable to write timing report " + name + ": " + ex.getMessage());
+            }
+        }
+    }
+
     protected abstract boolean processAbortable(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) throws AbortProcessingException;
 
-    private Logger log;
+    private ConcurrentLogger log;
+    /**
+     * This round's supertype index, or null until {@link #supertypes()} is first called in the round.
+     */
+    private SupertypeIndex supertypes;
+    private ProcessingTimer.Mode timingMode;
+    /**
+     * Times each round if {@link ProcessorOptions#TIMING} is on; null otherwise.
+     */
+    private ProcessingTimer timer;
+    /**
+     * The report every diagnostic is also written to, if {@link ProcessorOptions#LOG_REPORT} is set; null otherwise.
+     */
+    private DiagnosticReport report;
 
+    /**
+     * Returns this processor's logger.  It can be used from worker threads; their messages are printed on the processor
+     * thread at the end of the round, or sooner if the processor thread logs something first.
+     */
     protected final Logger logger() {
         return log;
     }
 
+    /**
+     * Returns the timer for this processor, so subclasses in this package can record phases and counters, or null if
+     * timing is off.
+     */
+    final ProcessingTimer timer() {
+        return timer;
+    }
+
     protected final Types types() {
         return processingEnv.getTypeUtils();
     }
@@ -75,16 +247,36 @@ public abstract class AbstractProcessorExt extends AbstractProcessor {
         return processingEnv.getFiler();
     }
 
+    /**
+     * Returns this round's {@link SupertypeIndex}, made the first time it's asked for each round.
+     */
+    protected final SupertypeIndex supertypes() {
+        if (supertypes == null) {
+            supertypes = new SupertypeIndex(types(), elements());
+        }
+        return supertypes;
+    }
+
     public static class AbortProcessingException extends RuntimeException {
         private final Element element;
         private final AnnotationMirror annotation;
         private final AnnotationValue value;
+        /**
+         * Whether the message has already been logged, so that aborting shouldn't print it again.
+         */
+        private final boolean reported;
 
         public AbortProcessingException(String message, Element element, AnnotationMirror annotation, AnnotationValue value) {
-            super(message);
+            this(message, element, annotation, value, false);
+        }
+
+        AbortProcessingException(String message, Element element, AnnotationMirror annotation, AnnotationValue value, boolean reported) {
+            // Only ever caught by process(), so a stack trace would be wasted effort
+            super(message, null, false, false);
             this.element = element;
             this.annotation = annotation;
             this.value = value;
+            this.reported = reported;
         }
 
         public Element getElement() {
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.Nullable;
+import javax.lang.model.element.Element;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A writer that can render generated files on worker threads and commits them to the {@link javax.annotation.processing.Filer}
+ * on the processor thread.
+ * <p>
+ * Writing happens in three steps:
+ * <ol>
+ *     <li>{@link #plan(Object)} turns the blueprint into an ordered list of units, on the processor thread.</li>
+ *     <li>{@link #render(Object)} turns each unit into file contents.  Units are rendered on the processor thread
+ *     by default, but in parallel on the processor's worker pool once {@link ProcessorOptions#PARALLELISM} is raised
+ *     and the writer is run by {@link AnalyzeAndWriteProcessor}, so render must never touch
+ *     {@link #elements() Elements}, {@link #types() Types}, elements, type mirrors or anything else from the
+ *     processing environment; javac's model is not thread-safe.  Copy whatever it needs into the unit in
+ *     {@code plan}.  It may log, without elements; the messages are printed on the processor thread.</li>
+ *     <li>{@link #commit(Object, CharSequence)} writes each unit's contents, on the processor thread, in plan order,
+ *     as soon as it and every unit before it are rendered.</li>
+ * </ol>
+ * Since the same {@code render} and {@code commit} run in the same order either way, the output is identical to
+ * running with a single worker, the default, which renders and commits each unit in turn.
+ *
+ * @param <Blueprint> the analysis result
+ * @param <Unit>      one renderable piece of output, usually one file
+ */
+public abstract class AbstractRenderingWriter<Blueprint, Unit> extends AbstractWriter<Blueprint> {
+
+    /**
+     * The processor's worker pool, which renders units.  Null to render on the processor thread.  Owned, and shut
+     * down, by the processor.
+     */
+    @Nullable
+    private ForkJoinPool workers;
+
+    void setWorkers(@Nullable ForkJoinPool workers) {
+        this.workers = workers;
+    }
+
+    @Override
+    public boolean write(Blueprint blueprint) {
+        List<Unit> units = plan(blueprint);
+        if (workers == null || units.size() <= 1) {
+            for (Unit each : units) {
+                commit(each, render(each));
+            }
+            return claimsAnnotations();
+        }
+
+        List<Future<CharSequence>> rendered = new ArrayList<>(units.size());
+        for (final Unit each : units) {
+            rendered.add(workers.submit(new Callable<CharSequence>() {
+                @Override
+                public CharSequence call() throws Exception {
+                    return render(each);
+                }
+            }));
+        }
+        try {
+            for (int i = 0; i < units.size(); i++) {
+                commit(units.get(i), await(rendered.get(i)));
+            }
+        } finally {
+            // The pool outlives this write, so don't leave it rendering units that will never be committed.
+            for (Future<CharSequence> each : rendered) {
+                each.cancel(false);
+            }
+        }
+        return claimsAnnotations();
+    }
+
+    private static CharSequence await(Future<CharSequence> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AbstractProcessorExt.AbortProcessingException("Interrupted while rendering", null, null, null);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Splits the blueprint into units to render.  Called on the processor thread.
+     */
+    protected abstract List<Unit> plan(Blueprint blueprint);
+
+    /**
+     * Renders one unit.  May be called on a worker thread, at the same time as other units are rendered, so this must
+     * not use {@link #elements()}, {@link #types()} or the compiler's model.
+     */
+    protected abstract CharSequence render(Unit unit);
+
+    /**
+     * Writes one rendered unit, usually with {@link #writeSourceFile} or {@link #writeResource}.  Called on the
+     * processor thread, in plan order.
+     */
+    protected abstract void commit(Unit unit, CharSequence text);
+
+    /**
+     * Returns the value {@link #write(Object)} returns, which the processor returns from {@code process}.  Defaults to
+     * false.
+     */
+    protected boolean claimsAnnotations() {
+        return false;
+    }
+
+    /**
+     * Writes a source file, logging a fatal error if it can't be written.
+     */
+    protected final void writeSourceFile(CharSequence name, CharSequence text, Element... originatingElements) {
+        try {
+            writeTo(filer().createSourceFile(name, originatingElements), text);
+        } catch (IOException ex) {
+            logger().fatal("Unable to write " + name + ": " + ex.getMessage(), first(originatingElements));
+        }
+    }
+
+    /**
+     * Writes a resource file, logging a fatal error if it can't be written.
+     */
+    protected final void writeResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName,
+                                       CharSequence text, Element... originatingElements) {
+        try {
+            writeTo(filer().createResource(location, pkg, relativeName, originatingElements), text);
+        } catch (IOException ex) {
+            logger().fatal("Unable to write " + relativeName + ": " + ex.getMessage(), first(originatingElements));
+        }
+    }
+
+    private static void writeTo(FileObject file, CharSequence text) throws IOException {
+        try (Writer out = file.openWriter()) {
+            out.append(text);
+        }
+    }
+
+    private static Element first(Element[] elements) {
+        return elements.length == 0 ? null : elements[0];
+    }
+}
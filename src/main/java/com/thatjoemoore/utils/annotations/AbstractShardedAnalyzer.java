@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Base class for {@link AnalyzeAndWriteProcessor.ShardedAnalyzer} implementations, with the same accessors as
+ * {@link AbstractAnalyzer}.  By default every root type of the round is captured.
+ */
+public abstract class AbstractShardedAnalyzer<Partial, Blueprint> implements AnalyzeAndWriteProcessor.ShardedAnalyzer<Partial, Blueprint> {
+
+    private ProcessingEnvironment processingEnv;
+    private RoundEnvironment roundEnv;
+    private Logger logger;
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv, RoundEnvironment roundEnv, Logger logger) {
+        this.processingEnv = processingEnv;
+        this.roundEnv = roundEnv;
+        this.logger = logger;
+    }
+
+    protected ProcessingEnvironment processingEnv() {
+        return processingEnv;
+    }
+
+    protected RoundEnvironment roundEnv() {
+        return roundEnv;
+    }
+
+    protected Logger logger() {
+        return logger;
+    }
+
+    protected final Types types() {
+        return processingEnv.getTypeUtils();
+    }
+
+    protected final Elements elements() {
+        return processingEnv.getElementUtils();
+    }
+
+    protected final Messager messager() {
+        return processingEnv.getMessager();
+    }
+
+    protected final Filer filer() {
+        return processingEnv.getFiler();
+    }
+
+    /**
+     * Snapshots every root type of the round.  Override to capture only the elements this analyzer cares about.
+     */
+    @Override
+    public List<TypeSnapshot> capture(Set<? extends TypeElement> annotations) {
+        List<TypeSnapshot> result = new ArrayList<>();
+        for (TypeElement each : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            result.add(TypeSnapshot.of(each, elements()));
+        }
+        return result;
+    }
+
+}
@@ -22,6 +22,8 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Created by adm.jmooreoa on 12/31/14.
@@ -31,12 +33,22 @@ public abstract class AbstractWriter<Blueprint> implements AnalyzeAndWriteProces
     private ProcessingEnvironment processingEnv;
     private RoundEnvironment roundEnv;
     private Logger logger;
+    private TrackedFiler filer;
 
     @Override
     public void init(ProcessingEnvironment processingEnv, RoundEnvironment roundEnv, Logger logger) {
         this.processingEnv = processingEnv;
         this.roundEnv = roundEnv;
         this.logger = logger;
+        this.filer = new TrackedFiler(processingEnv.getFiler(), incrementalMode());
+    }
+
+    /**
+     * Returns the Gradle incremental mode this writer's files are generated in.  This should match the mode declared
+     * with {@link IncrementalProcessor} on the processor.  Defaults to {@link IncrementalMode#AGGREGATING}.
+     */
+    protected IncrementalMode incrementalMode() {
+        return IncrementalMode.AGGREGATING;
     }
 
     protected ProcessingEnvironment processingEnv() {
@@ -63,8 +75,18 @@ public abstract class AbstractWriter<Blueprint> implements AnalyzeAndWriteProces
         return processingEnv.getMessager();
     }
 
+    /**
+     * Returns a {@link TrackedFiler} for this round, which requires originating elements on every file it creates.
+     */
     protected final Filer filer() {
-        return processingEnv.getFiler();
+        return filer;
+    }
+
+    /**
+     * Returns the files created through {@link #filer()} this round, mapped to their originating elements.
+     */
+    protected final Map<String, List<String>> generatedFiles() {
+        return filer.getGeneratedFiles();
     }
 
 }
@@ -19,33 +19,392 @@ package com.thatjoemoore.utils.annotations;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Created by adm.jmooreoa on 12/30/14.
  */
 public abstract class AnalyzeAndWriteProcessor<Blueprint> extends AbstractProcessorExt {
 
+    /**
+     * Fragments produced by the incremental analyzer, keyed by qualified name, in the order they were first analyzed.
+     */
+    private final Map<String, Object> fragments = new LinkedHashMap<>();
+    /**
+     * Qualified names of every root element the incremental analyzer has already seen, including those that produced no fragment.
+     */
+    private final Set<String> analyzed = new HashSet<>();
+    /**
+     * Elements the incremental analyzer has deferred, mapped to the reason they were deferred, in the order they were
+     * first deferred.
+     */
+    private final Map<String, String> deferred = new LinkedHashMap<>();
+    /**
+     * The persistent cache, once it has been opened.  Null if it hasn't been, or if it is disabled.
+     */
+    private BlueprintCache cache;
+    private boolean cacheOpened;
+    /**
+     * Runs sharded analysis and rendering, once there is more than one shard or unit to run.  Kept until processing is
+     * over.
+     */
+    private ForkJoinPool workers;
+
     @Override
     protected boolean processAbortable(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) throws AbortProcessingException {
-        Analyzer<Blueprint> analyzer = getAnalyzer();
+        try {
+            return analyzeAndWrite(annotations, roundEnv);
+        } finally {
+            if (roundEnv.processingOver() && workers != null) {
+                workers.shutdown();
+                workers = null;
+            }
+        }
+    }
+
+    private boolean analyzeAndWrite(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        ProcessingTimer timer = timer();
+        if (timer == null) {
+            Blueprint blueprint = analyze(annotations, roundEnv);
+            logger().abortIfFatal();
+
+            return initWriter(roundEnv).write(blueprint);
+        }
+
+        long start = timer.start();
+        Blueprint blueprint = analyze(annotations, roundEnv);
+        timer.phase("analyze", start);
+        timer.count("rootElements", roundEnv.getRootElements().size());
+        logger().abortIfFatal();
+
+        start = timer.start();
+        Writer<Blueprint> writer = initWriter(roundEnv);
+        try {
+            return writer.write(blueprint);
+        } finally {
+            timer.phase("write", start);
+            if (writer instanceof AbstractWriter) {
+                timer.count("filesWritten", ((AbstractWriter<?>) writer).generatedFiles().size());
+            }
+        }
+    }
+
+    private Writer<Blueprint> initWriter(RoundEnvironment roundEnv) {
         Writer<Blueprint> writer = getWriter();
+        writer.init(processingEnv, roundEnv, logger());
+        if (writer instanceof AbstractRenderingWriter) {
+            int parallelism = ProcessorOptions.parallelism(processingEnv);
+            ((AbstractRenderingWriter<?, ?>) writer).setWorkers(parallelism == 1 ? null : workers(parallelism));
+        }
+        return writer;
+    }
+
+    private ForkJoinPool workers(int parallelism) {
+        if (workers == null) {
+            workers = new ForkJoinPool(parallelism);
+        }
+        return workers;
+    }
+
+    private Blueprint analyze(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        IncrementalAnalyzer<?, Blueprint> incremental = getIncrementalAnalyzer();
+        if (incremental != null) {
+            incremental.init(processingEnv, roundEnv, logger());
+            return analyzeIncrementally(incremental, roundEnv);
+        }
 
+        ShardedAnalyzer<?, Blueprint> sharded = getShardedAnalyzer();
+        if (sharded != null) {
+            sharded.init(processingEnv, roundEnv, logger());
+            return analyzeSharded(sharded, annotations, roundEnv);
+        }
+
+        Analyzer<Blueprint> analyzer = getAnalyzer();
+        if (analyzer == null) {
+            throw new IllegalStateException(getClass().getName()
+                    + " returned no analyzer from getAnalyzer(), getIncrementalAnalyzer() or getShardedAnalyzer()");
+        }
         analyzer.init(processingEnv, roundEnv, logger());
-        writer.init(processingEnv, roundEnv, logger());
+        return analyzer.analyze(annotations);
+    }
+
+    private <Fragment> Blueprint analyzeIncrementally(IncrementalAnalyzer<Fragment, Blueprint> analyzer, RoundEnvironment roundEnv) {
+        BlueprintCache cache = analyzer instanceof CacheableAnalyzer ? openCache() : null;
+        Set<String> added = new LinkedHashSet<>();
+
+        if (!deferred.isEmpty()) {
+            for (String name : new ArrayList<>(deferred.keySet())) {
+                TypeElement element = elements().getTypeElement(name);
+                if (element != null) {
+                    analyzeElement(analyzer, element, name, cache, added);
+                }
+            }
+        }
+
+        for (TypeElement each : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            String name = each.getQualifiedName().toString();
+            if (analyzed.add(name)) {
+                analyzeElement(analyzer, each, name, cache, added);
+            }
+        }
 
-        return writer.write(analyzer.analyze(annotations));
+        if (roundEnv.processingOver()) {
+            reportDeferred();
+            if (cache != null) {
+                saveCache(cache);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Fragment> all = (Map<String, Fragment>) fragments;
+        return analyzer.merge(Collections.unmodifiableMap(all), Collections.unmodifiableSet(added));
     }
 
+    private <Fragment> void analyzeElement(IncrementalAnalyzer<Fragment, Blueprint> analyzer, TypeElement element, String name,
+                                           BlueprintCache cache, Set<String> added) {
+        int fatal = logger().getFatalCount();
+        Fragment fragment;
+        try {
+            fragment = cache == null ? analyzer.analyze(element) : analyzeCached(analyzer, element, name, cache);
+        } catch (DeferElementException ex) {
+            deferred.put(name, ex.getMessage());
+            return;
+        }
+        deferred.remove(name);
+        ProcessingTimer timer = timer();
+        if (timer != null) {
+            timer.count("elementsAnalyzed", 1);
+        }
+        // An aggregating logger lets analysis go on past a fatal error, but the fragment it made can't be trusted
+        if (fragment != null && logger().getFatalCount() == fatal) {
+            fragments.put(name, fragment);
+            added.add(name);
+        }
+    }
+
+    private void reportDeferred() {
+        for (Map.Entry<String, String> each : deferred.entrySet()) {
+            logger().error("Unable to analyze " + each.getKey() + ": " + each.getValue(), elements().getTypeElement(each.getKey()));
+        }
+        deferred.clear();
+    }
+
+    private <Fragment> Fragment analyzeCached(IncrementalAnalyzer<Fragment, Blueprint> analyzer, TypeElement element, String name, BlueprintCache cache) {
+        String version = analyzer.getClass().getName() + '/' + ((CacheableAnalyzer<?, ?>) analyzer).cacheVersion();
+        byte[] fingerprint = BlueprintCache.fingerprint(TypeSnapshot.of(element, elements()), version);
+        byte[] cached = cache.get(name, fingerprint);
+        if (cached != null) {
+            // The analyzer is the same CacheableAnalyzer<Fragment, ?>, so this is its own fragment type
+            @SuppressWarnings("unchecked")
+            Class<Fragment> type = (Class<Fragment>) ((CacheableAnalyzer<?, ?>) analyzer).fragmentType();
+            try {
+                Fragment fragment = BlueprintCache.deserialize(cached, type, analyzer.getClass().getClassLoader());
+                ProcessingTimer timer = timer();
+                if (timer != null) {
+                    timer.count("cacheHits", 1);
+                }
+                return fragment;
+            } catch (IOException | ClassNotFoundException ex) {
+                // Written by an incompatible version of the fragment class, or not a fragment at all; analyze it again
+            }
+        }
+        int fatal = logger().getFatalCount();
+        Fragment fragment = analyzer.analyze(element);
+        if (logger().getFatalCount() != fatal) {
+            return fragment;
+        }
+        try {
+            cache.put(name, fingerprint, BlueprintCache.serialize(fragment));
+        } catch (IOException ex) {
+            logger().warning("Unable to cache the analysis of " + name + ": " + ex, element);
+        }
+        return fragment;
+    }
+
+    private BlueprintCache openCache() {
+        if (!cacheOpened) {
+            cacheOpened = true;
+            String dir = ProcessorOptions.stringOption(processingEnv, ProcessorOptions.CACHE_DIR, null);
+            if (dir != null) {
+                long maxBytes = ProcessorOptions.longOption(processingEnv, ProcessorOptions.CACHE_MAX_BYTES, 64L * 1024 * 1024);
+                cache = BlueprintCache.open(Paths.get(dir, getClass().getName() + ".cache"), maxBytes);
+                if (cache.getLoadProblem() != null) {
+                    logger().note(cache.getLoadProblem());
+                }
+            }
+        }
+        return cache;
+    }
+
+    private void saveCache(BlueprintCache cache) {
+        try {
+            cache.save();
+        } catch (IOException ex) {
+            logger().warning("Unable to save the analysis cache: " + ex);
+        }
+    }
+
+    private <Partial> Blueprint analyzeSharded(ShardedAnalyzer<Partial, Blueprint> analyzer, Set<? extends TypeElement> annotations,
+                                               RoundEnvironment roundEnv) {
+        List<TypeSnapshot> roots = analyzer.capture(annotations);
+        ProcessingTimer timer = timer();
+        if (timer != null) {
+            timer.count("elementsAnalyzed", roots.size());
+        }
+        int parallelism = ProcessorOptions.parallelism(processingEnv);
+        if (parallelism == 1 || roots.size() <= 1) {
+            return analyzer.merge(Collections.singletonList(analyzer.analyze(roots)));
+        }
+        return analyzer.merge(ShardedAnalysis.analyze(workers(parallelism), roots, analyzer));
+    }
+
+    /**
+     * Returns the analyzer to use for this round.  It is only asked for when {@link #getIncrementalAnalyzer()} and
+     * {@link #getShardedAnalyzer()} both return null, so processors that always use one of those may return null.
+     */
     protected abstract Analyzer<Blueprint> getAnalyzer();
+
     protected abstract Writer<Blueprint> getWriter();
 
+    /**
+     * Returns the incremental analyzer to use for this round, or null (the default) to use {@link #getAnalyzer()}.
+     * <p>
+     * When an incremental analyzer is present, fragments are kept for the life of this processor, so each root element
+     * is only analyzed in the first round it appears in.
+     */
+    protected IncrementalAnalyzer<?, Blueprint> getIncrementalAnalyzer() {
+        return null;
+    }
+
     public static interface Analyzer<Blueprint> {
         void init(ProcessingEnvironment processingEnv, RoundEnvironment roundEnv, Logger logger);
 
         Blueprint analyze(Set<? extends TypeElement> annotations);
     }
 
+    /**
+     * Analyzes root elements one at a time into fragments, which are then merged into a blueprint.
+     *
+     * @param <Fragment>  the per-element analysis result
+     * @param <Blueprint> the merged result passed to the writer
+     */
+    public static interface IncrementalAnalyzer<Fragment, Blueprint> {
+        void init(ProcessingEnvironment processingEnv, RoundEnvironment roundEnv, Logger logger);
+
+        /**
+         * Analyzes a single root element.  Nested types are not passed separately; they should be handled with their
+         * enclosing root element.
+         *
+         * @param element root element that has not been analyzed in any previous round, or one that was deferred
+         * @return the fragment for this element, or null if it contributes nothing
+         * @throws DeferElementException to try this element again in the next round
+         */
+        Fragment analyze(TypeElement element);
+
+        /**
+         * Combines fragments into a blueprint for this round.
+         *
+         * @param fragments every fragment produced so far, keyed by qualified name, in the order they were produced.  This
+         *                  is a read-only view that keeps growing in later rounds, so copy anything that must be kept.
+         * @param added     the keys of the fragments that were produced in this round
+         * @return blueprint for the writer
+         */
+        Blueprint merge(Map<String, Fragment> fragments, Set<String> added);
+    }
+
+    /**
+     * Thrown by an {@link IncrementalAnalyzer} that can't analyze an element yet, usually because it refers to a type
+     * another processor hasn't generated.  The element is fetched again by name and re-analyzed in every later round
+     * until it succeeds.  Elements that are still deferred when processing is over are reported as errors.
+     * <p>
+     * This exception does not capture a stack trace, so deferring many elements is cheap.
+     */
+    public static class DeferElementException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public DeferElementException(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+
+    /**
+     * An incremental analyzer whose fragments can be kept between builds.  When
+     * {@link ProcessorOptions#CACHE_DIR -Aannotationutils.cache.dir} is set, fragments (including the absence of one)
+     * are stored on disk with a fingerprint of the element's {@link TypeSnapshot}, and reused in later builds as long
+     * as the fingerprint still matches.
+     * <p>
+     * The fingerprint only covers the element itself.  Analyzers whose fragments depend on other types, such as
+     * inherited members, should not be cacheable, or should fold what they depend on into {@link #cacheVersion()}.
+     *
+     * @param <Fragment>  the per-element analysis result, which must be serializable
+     * @param <Blueprint> the merged result passed to the writer
+     */
+    public static interface CacheableAnalyzer<Fragment extends Serializable, Blueprint> extends IncrementalAnalyzer<Fragment, Blueprint> {
+        /**
+         * Returns a string that changes whenever this analyzer's output format or logic does.  Changing it invalidates
+         * every cached fragment.
+         */
+        String cacheVersion();
+
+        /**
+         * Returns the fragment class.  Cached fragments are only read back if they are instances of it, and may only be
+         * made of it, the classes in its package, snapshots, enums, strings, boxed primitives and collections.
+         */
+        Class<Fragment> fragmentType();
+    }
+
+    /**
+     * Returns the sharded analyzer to use for this round, or null (the default) to use {@link #getAnalyzer()}.  Ignored
+     * if {@link #getIncrementalAnalyzer()} returns an analyzer.
+     * <p>
+     * Shards are analyzed on the processor thread unless {@link ProcessorOptions#PARALLELISM} is raised.  The worker
+     * pool is then created the first time it is needed, reused in later rounds, and shut down once processing is over.
+     */
+    protected ShardedAnalyzer<?, Blueprint> getShardedAnalyzer() {
+        return null;
+    }
+
+    /**
+     * Analyzes snapshots of the round's elements in parallel shards, then merges the partial results into a
+     * blueprint.
+     *
+     * @param <Partial>   the result of analyzing one shard
+     * @param <Blueprint> the merged result passed to the writer
+     */
+    public static interface ShardedAnalyzer<Partial, Blueprint> {
+        void init(ProcessingEnvironment processingEnv, RoundEnvironment roundEnv, Logger logger);
+
+        /**
+         * Snapshots the elements to analyze.  Called on the processor thread.
+         */
+        List<TypeSnapshot> capture(Set<? extends TypeElement> annotations);
+
+        /**
+         * Analyzes one shard of the captured snapshots.  Called on a worker thread, possibly at the same time as other
+         * shards, so this must not touch the compiler's model or the processing environment.  It may log, without
+         * elements; the messages are printed on the processor thread, and a fatal one still aborts the round.
+         */
+        Partial analyze(List<TypeSnapshot> shard);
+
+        /**
+         * Combines the partial results.  Called on the processor thread.
+         *
+         * @param partials one result per shard, in the order the snapshots were captured
+         */
+        Blueprint merge(List<Partial> partials);
+    }
+
     public static interface Writer<Blueprint> {
         void init(ProcessingEnvironment processingEnv, RoundEnvironment roundEnv, Logger logger);
 
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.SimpleAnnotationValueVisitor7;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable, thread-safe copy of an {@link AnnotationMirror}, including default values.
+ * <p>
+ * Values are stored as plain Java objects: primitives and strings as their boxed types, {@code Class} values as the
+ * type's name, enum constants as the constant's simple name, nested annotations as {@link AnnotationSnapshot}s and
+ * arrays as immutable lists.
+ */
+@ParametersAreNonnullByDefault
+public final class AnnotationSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String annotationType;
+    private final ImmutableMap<String, Object> values;
+
+    public AnnotationSnapshot(String annotationType, Map<String, ?> values) {
+        this.annotationType = requireNonNull(annotationType, "annotationType cannot be null");
+        this.values = ImmutableMap.copyOf(values);
+    }
+
+    /**
+     * Copies an annotation mirror.  Must be called on the processor thread.
+     */
+    public static AnnotationSnapshot of(AnnotationMirror mirror, Elements elements) {
+        TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+        Map<? extends ExecutableElement, ? extends AnnotationValue> all = elements.getElementValuesWithDefaults(mirror);
+        ImmutableMap.Builder<String, Object> values = ImmutableMap.builder();
+        // Walk the attributes in declaration order so equal annotations always produce identical snapshots
+        for (ExecutableElement each : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            AnnotationValue value = all.get(each);
+            if (value != null) {
+                values.put(each.getSimpleName().toString(), value.accept(VALUE_COPIER, elements));
+            }
+        }
+        return new AnnotationSnapshot(type.getQualifiedName().toString(), values.build());
+    }
+
+    static ImmutableList<AnnotationSnapshot> of(List<? extends AnnotationMirror> mirrors, Elements elements) {
+        ImmutableList.Builder<AnnotationSnapshot> result = ImmutableList.builder();
+        for (AnnotationMirror each : mirrors) {
+            result.add(of(each, elements));
+        }
+        return result.build();
+    }
+
+    /**
+     * Returns the qualified name of the annotation type.
+     */
+    public String getAnnotationType() {
+        return annotationType;
+    }
+
+    /**
+     * Returns every attribute value, including defaults, in declaration order.
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Returns the value of a single attribute, or null if there is no such attribute.
+     */
+    public Object getValue(String name) {
+        return values.get(name);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AnnotationSnapshot that = (AnnotationSnapshot) o;
+        return annotationType.equals(that.annotationType) && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * annotationType.hashCode() + values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "@" + annotationType + values;
+    }
+
+    private static final SimpleAnnotationValueVisitor7<Object, Elements> VALUE_COPIER = new SimpleAnnotationValueVisitor7<Object, Elements>() {
+        @Override
+        protected Object defaultAction(Object o, Elements elements) {
+            // Primitives and Strings are already immutable
+            return o;
+        }
+
+        @Override
+        public Object visitType(TypeMirror t, Elements elements) {
+            return t.toString();
+        }
+
+        @Override
+        public Object visitEnumConstant(VariableElement c, Elements elements) {
+            return c.getSimpleName().toString();
+        }
+
+        @Override
+        public Object visitAnnotation(AnnotationMirror a, Elements elements) {
+            return AnnotationSnapshot.of(a, elements);
+        }
+
+        @Override
+        public Object visitArray(List<? extends AnnotationValue> vals, Elements elements) {
+            ImmutableList.Builder<Object> result = ImmutableList.builder();
+            for (AnnotationValue each : vals) {
+                result.add(each.accept(this, elements));
+            }
+            return result.build();
+        }
+    };
+}
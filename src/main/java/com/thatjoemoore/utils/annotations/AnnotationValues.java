@@ -0,0 +1,316 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.SimpleAnnotationValueVisitor7;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decodes {@link AnnotationValue}s into plain Java values, without boxing primitives or copying through lists.
+ * <p>
+ * Single values are read straight from {@link AnnotationValue#getValue()}; for primitives, that is the constant the
+ * compiler already holds, so nothing new is boxed.  Arrays are decoded by a visitor, which the compiler hands each
+ * element unboxed, into a primitive or typed array.  {@code Class} values come back as the {@link TypeMirror} of the
+ * class, enum constants as their {@link VariableElement}.
+ * <p>
+ * Every method throws an IllegalArgumentException if the value isn't of the type asked for.
+ */
+@ParametersAreNonnullByDefault
+public final class AnnotationValues {
+    private AnnotationValues() {}
+
+    public static boolean booleanValue(AnnotationValue value) {
+        return (Boolean) value(value, Boolean.class, "a boolean");
+    }
+
+    public static byte byteValue(AnnotationValue value) {
+        return (Byte) value(value, Byte.class, "a byte");
+    }
+
+    public static short shortValue(AnnotationValue value) {
+        return (Short) value(value, Short.class, "a short");
+    }
+
+    public static int intValue(AnnotationValue value) {
+        return (Integer) value(value, Integer.class, "an int");
+    }
+
+    public static long longValue(AnnotationValue value) {
+        return (Long) value(value, Long.class, "a long");
+    }
+
+    public static char charValue(AnnotationValue value) {
+        return (Character) value(value, Character.class, "a char");
+    }
+
+    public static float floatValue(AnnotationValue value) {
+        return (Float) value(value, Float.class, "a float");
+    }
+
+    public static double doubleValue(AnnotationValue value) {
+        return (Double) value(value, Double.class, "a double");
+    }
+
+    public static String stringValue(AnnotationValue value) {
+        return (String) value(value, String.class, "a String");
+    }
+
+    /**
+     * Returns the type named by a {@code Class} value.
+     */
+    public static TypeMirror typeValue(AnnotationValue value) {
+        return (TypeMirror) value(value, TypeMirror.class, "a Class");
+    }
+
+    /**
+     * Returns the enum constant named by an enum value.
+     */
+    public static VariableElement enumValue(AnnotationValue value) {
+        return (VariableElement) value(value, VariableElement.class, "an enum constant");
+    }
+
+    public static AnnotationMirror annotationMirror(AnnotationValue value) {
+        return (AnnotationMirror) value(value, AnnotationMirror.class, "an annotation");
+    }
+
+    public static boolean[] booleanArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new boolean[list.size()], "a boolean");
+    }
+
+    public static byte[] byteArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new byte[list.size()], "a byte");
+    }
+
+    public static short[] shortArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new short[list.size()], "a short");
+    }
+
+    public static int[] intArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new int[list.size()], "an int");
+    }
+
+    public static long[] longArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new long[list.size()], "a long");
+    }
+
+    public static char[] charArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new char[list.size()], "a char");
+    }
+
+    public static float[] floatArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new float[list.size()], "a float");
+    }
+
+    public static double[] doubleArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new double[list.size()], "a double");
+    }
+
+    public static String[] stringArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new String[list.size()], "a String");
+    }
+
+    /**
+     * Returns the types named by a {@code Class[]} value.
+     */
+    public static TypeMirror[] typeArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new TypeMirror[list.size()], "a Class");
+    }
+
+    /**
+     * Returns the enum constants named by an enum array value.
+     */
+    public static VariableElement[] enumArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new VariableElement[list.size()], "an enum constant");
+    }
+
+    public static AnnotationMirror[] annotationArray(AnnotationValue value) {
+        List<? extends AnnotationValue> list = list(value);
+        return decode(list, new AnnotationMirror[list.size()], "an annotation");
+    }
+
+    private static Object value(AnnotationValue value, Class<?> type, String description) {
+        Object raw = requireNonNull(value, "value cannot be null").getValue();
+        if (!type.isInstance(raw)) {
+            throw new IllegalArgumentException("Expected " + description + ", not " + value);
+        }
+        return raw;
+    }
+
+    private static List<? extends AnnotationValue> list(AnnotationValue value) {
+        Object raw = requireNonNull(value, "value cannot be null").getValue();
+        if (!(raw instanceof List)) {
+            throw new IllegalArgumentException("Expected an array, not " + value);
+        }
+        @SuppressWarnings("unchecked")
+        List<? extends AnnotationValue> list = (List<? extends AnnotationValue>) raw;
+        return list;
+    }
+
+    private static <A> A decode(List<? extends AnnotationValue> list, A array, String description) {
+        ArrayDecoder decoder = new ArrayDecoder(array, description);
+        for (AnnotationValue each : list) {
+            each.accept(decoder, null);
+        }
+        return array;
+    }
+
+    /**
+     * Stores each element it visits in the next slot of an array, if it's of the array's type.
+     */
+    private static final class ArrayDecoder extends SimpleAnnotationValueVisitor7<Void, Void> {
+        private final Object array;
+        private final String description;
+        private int index;
+
+        private ArrayDecoder(Object array, String description) {
+            this.array = array;
+            this.description = description;
+        }
+
+        @Override
+        protected Void defaultAction(Object o, Void p) {
+            throw new IllegalArgumentException("Expected " + description + ", not " + o);
+        }
+
+        @Override
+        public Void visitBoolean(boolean b, Void p) {
+            if (!(array instanceof boolean[])) {
+                return defaultAction(b, p);
+            }
+            ((boolean[]) array)[index++] = b;
+            return null;
+        }
+
+        @Override
+        public Void visitByte(byte b, Void p) {
+            if (!(array instanceof byte[])) {
+                return defaultAction(b, p);
+            }
+            ((byte[]) array)[index++] = b;
+            return null;
+        }
+
+        @Override
+        public Void visitShort(short s, Void p) {
+            if (!(array instanceof short[])) {
+                return defaultAction(s, p);
+            }
+            ((short[]) array)[index++] = s;
+            return null;
+        }
+
+        @Override
+        public Void visitInt(int i, Void p) {
+            if (!(array instanceof int[])) {
+                return defaultAction(i, p);
+            }
+            ((int[]) array)[index++] = i;
+            return null;
+        }
+
+        @Override
+        public Void visitLong(long i, Void p) {
+            if (!(array instanceof long[])) {
+                return defaultAction(i, p);
+            }
+            ((long[]) array)[index++] = i;
+            return null;
+        }
+
+        @Override
+        public Void visitChar(char c, Void p) {
+            if (!(array instanceof char[])) {
+                return defaultAction(c, p);
+            }
+            ((char[]) array)[index++] = c;
+            return null;
+        }
+
+        @Override
+        public Void visitFloat(float f, Void p) {
+            if (!(array instanceof float[])) {
+                return defaultAction(f, p);
+            }
+            ((float[]) array)[index++] = f;
+            return null;
+        }
+
+        @Override
+        public Void visitDouble(double d, Void p) {
+            if (!(array instanceof double[])) {
+                return defaultAction(d, p);
+            }
+            ((double[]) array)[index++] = d;
+            return null;
+        }
+
+        @Override
+        public Void visitString(String s, Void p) {
+            if (!(array instanceof String[])) {
+                return defaultAction(s, p);
+            }
+            ((String[]) array)[index++] = s;
+            return null;
+        }
+
+        @Override
+        public Void visitType(TypeMirror t, Void p) {
+            if (!(array instanceof TypeMirror[])) {
+                return defaultAction(t, p);
+            }
+            ((TypeMirror[]) array)[index++] = t;
+            return null;
+        }
+
+        @Override
+        public Void visitEnumConstant(VariableElement c, Void p) {
+            if (!(array instanceof VariableElement[])) {
+                return defaultAction(c, p);
+            }
+            ((VariableElement[]) array)[index++] = c;
+            return null;
+        }
+
+        @Override
+        public Void visitAnnotation(AnnotationMirror a, Void p) {
+            if (!(array instanceof AnnotationMirror[])) {
+                return defaultAction(a, p);
+            }
+            ((AnnotationMirror[]) array)[index++] = a;
+            return null;
+        }
+    }
+}
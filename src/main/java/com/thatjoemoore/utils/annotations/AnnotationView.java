@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.Nonnull;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.type.TypeMirror;
+import java.util.List;
+
+/**
+ * Implemented by every view {@link ElementsExt#view} returns, alongside the annotation's own interface.
+ * <p>
+ * A view's {@code Class} attributes throw a {@link javax.lang.model.type.MirroredTypeException} or
+ * {@link javax.lang.model.type.MirroredTypesException}, as with {@link javax.lang.model.element.Element#getAnnotation},
+ * since the classes may not exist yet.  Read them through {@link #typeMirror} and {@link #typeMirrors} instead.
+ */
+public interface AnnotationView {
+
+    /**
+     * Returns the mirror this is a view of.
+     */
+    AnnotationMirror getAnnotationMirror();
+
+    /**
+     * Returns the type named by a {@code Class} attribute.
+     *
+     * @throws IllegalArgumentException if there is no such attribute, or it isn't a {@code Class}
+     */
+    TypeMirror typeMirror(@Nonnull String attribute);
+
+    /**
+     * Returns the types named by a {@code Class[]} attribute.
+     *
+     * @throws IllegalArgumentException if there is no such attribute, or it isn't a {@code Class[]}
+     */
+    List<? extends TypeMirror> typeMirrors(@Nonnull String attribute);
+}
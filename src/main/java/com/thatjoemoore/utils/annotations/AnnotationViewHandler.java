@@ -0,0 +1,268 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.MirroredTypesException;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers the calls made on a view from {@link ElementsExt#view}.  The mirror's values are all read the first time any
+ * attribute is, and each attribute is decoded the first time it is asked for, then kept.
+ */
+final class AnnotationViewHandler implements InvocationHandler {
+
+    /**
+     * Creates a view of {@code mirror}, which must be of {@code type}.
+     */
+    static <A extends Annotation> A create(AnnotationMirror mirror, Class<A> type, Elements elements) {
+        ViewType viewType = VIEW_TYPES.get(type);
+        return type.cast(Proxy.newProxyInstance(viewType.loader, viewType.interfaces,
+                new AnnotationViewHandler(viewType, mirror, elements)));
+    }
+
+    private static final ClassValue<ViewType> VIEW_TYPES = new ClassValue<ViewType>() {
+        @Override
+        protected ViewType computeValue(Class<?> type) {
+            return new ViewType(type);
+        }
+    };
+
+    /**
+     * What every view of one annotation type has in common.
+     */
+    private static final class ViewType {
+        private final Class<?> type;
+        private final Class<?>[] interfaces;
+        private final ClassLoader loader;
+        private final Method[] attributes;
+        private final String[] names;
+        private final Map<Method, Integer> indexes = new HashMap<>();
+        private final Map<String, Integer> indexesByName = new HashMap<>();
+
+        private ViewType(Class<?> type) {
+            this.type = type;
+            this.interfaces = new Class<?>[]{type, AnnotationView.class};
+            this.loader = loader(type);
+            this.attributes = type.getDeclaredMethods();
+            this.names = new String[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                names[i] = attributes[i].getName();
+                indexes.put(attributes[i], i);
+                indexesByName.put(names[i], i);
+            }
+        }
+
+        /**
+         * Returns a class loader that can see both {@code type} and {@link AnnotationView}.
+         */
+        private static ClassLoader loader(Class<?> type) {
+            ClassLoader ours = AnnotationView.class.getClassLoader();
+            try {
+                if (Class.forName(type.getName(), false, ours) == type) {
+                    return ours;
+                }
+            } catch (ClassNotFoundException ex) {
+                // Only the annotation's own loader can see it
+            }
+            return type.getClassLoader();
+        }
+    }
+
+    private final ViewType type;
+    private final AnnotationMirror mirror;
+    private final Elements elements;
+    /**
+     * The mirror's values, in attribute order, or null until one is asked for.
+     */
+    private AnnotationValue[] values;
+    /**
+     * Each attribute's decoded value, or null until it is asked for.  {@code Class} attributes are kept as the
+     * mirrors they throw, since each call needs an exception of its own.
+     */
+    private final Object[] decoded;
+
+    private AnnotationViewHandler(ViewType type, AnnotationMirror mirror, Elements elements) {
+        this.type = type;
+        this.mirror = mirror;
+        this.elements = elements;
+        this.decoded = new Object[type.attributes.length];
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        Integer index = type.indexes.get(method);
+        if (index != null) {
+            Object value = decoded(index);
+            Class<?> returnType = type.attributes[index].getReturnType();
+            if (returnType == Class.class) {
+                throw new MirroredTypeException((TypeMirror) value);
+            } else if (returnType == Class[].class) {
+                throw new MirroredTypesException(typeMirrors(value));
+            }
+            return value.getClass().isArray() ? copy(value) : value;
+        }
+        switch (method.getName()) {
+            case "getAnnotationMirror":
+                return mirror;
+            case "typeMirror":
+                return AnnotationValues.typeValue(value((String) args[0]));
+            case "typeMirrors":
+                return Collections.unmodifiableList(Arrays.asList(AnnotationValues.typeArray(value((String) args[0]))));
+            case "annotationType":
+                return type.type;
+            case "equals":
+                return args[0] instanceof AnnotationView
+                        && mirror.equals(((AnnotationView) args[0]).getAnnotationMirror());
+            case "hashCode":
+                return mirror.hashCode();
+            case "toString":
+                return mirror.toString();
+            default:
+                throw new AssertionError("Views have no method " + method);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<TypeMirror> typeMirrors(Object value) {
+        return (List<TypeMirror>) value;
+    }
+
+    private AnnotationValue value(String name) {
+        Integer index = type.indexesByName.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException(type.type.getName() + " has no attribute " + name);
+        }
+        return values()[index];
+    }
+
+    private AnnotationValue[] values() {
+        if (values == null) {
+            values = ElementsExt.annotationValues(mirror, elements, type.names);
+        }
+        return values;
+    }
+
+    private Object decoded(int index) {
+        Object value = decoded[index];
+        if (value == null) {
+            AnnotationValue raw = values()[index];
+            if (raw == null) {
+                throw new IllegalStateException(mirror + " has no value for " + type.names[index]);
+            }
+            value = decode(raw, type.attributes[index].getReturnType());
+            decoded[index] = value;
+        }
+        return value;
+    }
+
+    private Object decode(AnnotationValue value, Class<?> type) {
+        if (type == boolean.class) {
+            return AnnotationValues.booleanValue(value);
+        } else if (type == byte.class) {
+            return AnnotationValues.byteValue(value);
+        } else if (type == short.class) {
+            return AnnotationValues.shortValue(value);
+        } else if (type == int.class) {
+            return AnnotationValues.intValue(value);
+        } else if (type == long.class) {
+            return AnnotationValues.longValue(value);
+        } else if (type == char.class) {
+            return AnnotationValues.charValue(value);
+        } else if (type == float.class) {
+            return AnnotationValues.floatValue(value);
+        } else if (type == double.class) {
+            return AnnotationValues.doubleValue(value);
+        } else if (type == String.class) {
+            return AnnotationValues.stringValue(value);
+        } else if (type == Class.class) {
+            return AnnotationValues.typeValue(value);
+        } else if (type.isEnum()) {
+            return constant(AnnotationValues.enumValue(value), type);
+        } else if (type.isAnnotation()) {
+            return ElementsExt.view(AnnotationValues.annotationMirror(value), type.asSubclass(Annotation.class), elements);
+        } else if (type == boolean[].class) {
+            return AnnotationValues.booleanArray(value);
+        } else if (type == byte[].class) {
+            return AnnotationValues.byteArray(value);
+        } else if (type == short[].class) {
+            return AnnotationValues.shortArray(value);
+        } else if (type == int[].class) {
+            return AnnotationValues.intArray(value);
+        } else if (type == long[].class) {
+            return AnnotationValues.longArray(value);
+        } else if (type == char[].class) {
+            return AnnotationValues.charArray(value);
+        } else if (type == float[].class) {
+            return AnnotationValues.floatArray(value);
+        } else if (type == double[].class) {
+            return AnnotationValues.doubleArray(value);
+        } else if (type == String[].class) {
+            return AnnotationValues.stringArray(value);
+        } else if (type == Class[].class) {
+            return Collections.unmodifiableList(Arrays.asList(AnnotationValues.typeArray(value)));
+        }
+        Class<?> component = type.getComponentType();
+        if (component != null && component.isEnum()) {
+            VariableElement[] constants = AnnotationValues.enumArray(value);
+            Object array = Array.newInstance(component, constants.length);
+            for (int i = 0; i < constants.length; i++) {
+                Array.set(array, i, constant(constants[i], component));
+            }
+            return array;
+        }
+        if (component != null && component.isAnnotation()) {
+            AnnotationMirror[] mirrors = AnnotationValues.annotationArray(value);
+            Object array = Array.newInstance(component, mirrors.length);
+            for (int i = 0; i < mirrors.length; i++) {
+                Array.set(array, i, ElementsExt.view(mirrors[i], component.asSubclass(Annotation.class), elements));
+            }
+            return array;
+        }
+        throw new IllegalArgumentException("Unexpected attribute type " + type.getName());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object constant(VariableElement constant, Class<?> type) {
+        return Enum.valueOf((Class) type, constant.getSimpleName().toString());
+    }
+
+    /**
+     * Copies an array, so that changing what a view returned doesn't change the view.
+     */
+    private static Object copy(Object array) {
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+}
@@ -0,0 +1,487 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A size-bounded, on-disk cache of serialized analysis results, keyed by name and validated by a fingerprint.
+ * <p>
+ * The cache file is read into memory in one go when opened, and payloads are only copied out of that buffer when they
+ * are asked for.  Nothing keeps the file open or mapped afterwards, so {@link #save()} can replace it on any platform.
+ * The index and every payload carry a CRC32, and a file that fails any check is treated as empty.  {@code save()}
+ * writes a new file next to the old one and atomically renames it into place, so a build that dies halfway through
+ * never leaves a half-written cache behind.
+ * <p>
+ * Every save starts a new generation.  When the cache is over its size limit, the entries used longest ago are
+ * dropped first.
+ * <p>
+ * Instances are not thread-safe.
+ */
+@ParametersAreNonnullByDefault
+public final class BlueprintCache {
+    private static final int MAGIC = 0x41554243;
+    private static final int FORMAT = 1;
+    /**
+     * Rough size of an index entry, not counting the key, used when deciding what fits.
+     */
+    private static final int ENTRY_OVERHEAD = 48;
+    private static final int FINGERPRINT_BYTES = 16;
+
+    private final Path file;
+    private final long maxBytes;
+    private final long generation;
+    private final Map<String, Entry> entries;
+    /**
+     * The contents of the file the cache was opened from, or null if it started out empty.
+     */
+    private final ByteBuffer contents;
+    private final String loadProblem;
+
+    private BlueprintCache(Path file, long maxBytes, long generation, Map<String, Entry> entries, ByteBuffer contents, String loadProblem) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.generation = generation;
+        this.entries = entries;
+        this.contents = contents;
+        this.loadProblem = loadProblem;
+    }
+
+    /**
+     * Opens the cache stored in {@code file}.  A missing, unreadable or corrupt file gives an empty cache, and
+     * {@link #getLoadProblem()} says what was wrong with it.
+     *
+     * @param maxBytes the most {@link #save()} will write, roughly
+     */
+    public static BlueprintCache open(Path file, long maxBytes) {
+        requireNonNull(file, "file cannot be null");
+        if (!Files.isRegularFile(file)) {
+            return new BlueprintCache(file, maxBytes, 1, new HashMap<String, Entry>(), null, null);
+        }
+        try {
+            return load(file, maxBytes, ByteBuffer.wrap(Files.readAllBytes(file)));
+        } catch (IOException | RuntimeException ex) {
+            return new BlueprintCache(file, maxBytes, 1, new HashMap<String, Entry>(), null,
+                    "Discarding analysis cache " + file + ": " + ex);
+        }
+    }
+
+    private static BlueprintCache load(Path file, long maxBytes, ByteBuffer contents) {
+        ByteBuffer in = contents.duplicate();
+        if (in.getInt() != MAGIC || in.getInt() != FORMAT) {
+            throw new IllegalStateException("not a cache file, or written by another version");
+        }
+        long generation = in.getLong();
+        int count = in.getInt();
+        int indexStart = in.position();
+
+        Map<String, Entry> entries = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            byte[] key = new byte[in.getShort() & 0xFFFF];
+            in.get(key);
+            byte[] fingerprint = new byte[FINGERPRINT_BYTES];
+            in.get(fingerprint);
+            Entry entry = new Entry(fingerprint, in.getLong(), null, in.getInt(), in.getInt(), in.getLong());
+            entries.put(new String(key, StandardCharsets.UTF_8), entry);
+        }
+        int indexEnd = in.position();
+        if (in.getLong() != crc(contents, indexStart, indexEnd - indexStart)) {
+            throw new IllegalStateException("index checksum mismatch");
+        }
+        int payloadStart = in.position();
+        for (Entry each : entries.values()) {
+            each.offset += payloadStart;
+            if (each.offset < payloadStart || each.length < 0 || (long) each.offset + each.length > contents.limit()) {
+                throw new IllegalStateException("entry out of bounds");
+            }
+        }
+        return new BlueprintCache(file, maxBytes, generation + 1, entries, contents, null);
+    }
+
+    /**
+     * Returns why the cache file couldn't be used, or null if it was fine (or didn't exist).
+     */
+    public String getLoadProblem() {
+        return loadProblem;
+    }
+
+    /**
+     * Returns the payload stored for {@code key}, or null if there is none, its fingerprint doesn't match, or it is
+     * corrupt.  A hit counts as a use when deciding what to evict.
+     */
+    public byte[] get(String key, byte[] fingerprint) {
+        Entry entry = entries.get(key);
+        if (entry == null || !Arrays.equals(entry.fingerprint, fingerprint)) {
+            return null;
+        }
+        byte[] payload = entry.payload(contents);
+        if (payload == null) {
+            entries.remove(key);
+            return null;
+        }
+        entry.generation = generation;
+        return payload;
+    }
+
+    /**
+     * Stores a payload, replacing anything already stored for {@code key}.
+     */
+    public void put(String key, byte[] fingerprint, byte[] payload) {
+        requireNonNull(key, "key cannot be null");
+        if (fingerprint.length != FINGERPRINT_BYTES) {
+            throw new IllegalArgumentException("fingerprint must be " + FINGERPRINT_BYTES + " bytes");
+        }
+        entries.put(key, new Entry(fingerprint.clone(), generation, payload.clone(), 0, payload.length, 0));
+    }
+
+    /**
+     * Writes the cache back to disk, dropping the least recently used entries if it is too big.
+     */
+    public void save() throws IOException {
+        List<Map.Entry<String, Entry>> kept = new ArrayList<>(entries.entrySet());
+        Collections.sort(kept, MOST_RECENT_FIRST);
+        long size = 0;
+        int keep = 0;
+        for (Map.Entry<String, Entry> each : kept) {
+            size += ENTRY_OVERHEAD + each.getKey().length() + each.getValue().length;
+            if (size > maxBytes) {
+                break;
+            }
+            keep++;
+        }
+        kept = kept.subList(0, keep);
+
+        List<byte[]> payloads = new ArrayList<>(kept.size());
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream index = new DataOutputStream(indexBytes);
+        int offset = 0;
+        for (Map.Entry<String, Entry> each : kept) {
+            byte[] payload = each.getValue().payload(contents);
+            if (payload == null) {
+                continue;
+            }
+            byte[] key = each.getKey().getBytes(StandardCharsets.UTF_8);
+            index.writeShort(key.length);
+            index.write(key);
+            index.write(each.getValue().fingerprint);
+            index.writeLong(each.getValue().generation);
+            index.writeInt(offset);
+            index.writeInt(payload.length);
+            index.writeLong(crc(payload));
+            payloads.add(payload);
+            offset += payload.length;
+        }
+        index.flush();
+        byte[] indexArray = indexBytes.toByteArray();
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temp.toFile())) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(generation);
+                out.writeInt(payloads.size());
+                out.write(indexArray);
+                out.writeLong(crc(indexArray));
+                for (byte[] each : payloads) {
+                    out.write(each);
+                }
+                out.flush();
+                stream.getChannel().force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Serializes a value to store with {@link #put}.  Null is stored as an empty payload, which records that an element
+     * produced nothing.
+     */
+    static byte[] serialize(@Nullable Object value) throws IOException {
+        if (value == null) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads back a value written by {@link #serialize}, which must be a {@code type}.  Classes are loaded with
+     * {@code loader}, which should be the one that loaded the code that wrote the value.
+     * <p>
+     * The cache is an ordinary file in the build directory, so only the classes a cached value should be made of are
+     * resolved: {@code type} and the classes in its package, the snapshot classes, enums, strings, boxed primitives,
+     * and the {@code java.util} and Guava collections.  A payload naming any other class is refused before anything is
+     * instantiated.
+     *
+     * @throws InvalidClassException if the payload names a class outside that set, or isn't a {@code type}
+     */
+    @Nullable
+    static <T> T deserialize(byte[] payload, Class<T> type, @Nullable ClassLoader loader) throws IOException, ClassNotFoundException {
+        if (payload.length == 0) {
+            return null;
+        }
+        Object value;
+        try (ObjectInputStream in = new RestrictedInputStream(payload, type, loader)) {
+            value = in.readObject();
+        }
+        if (!type.isInstance(value)) {
+            throw new InvalidClassException(value.getClass().getName(), "cached value is not a " + type.getName());
+        }
+        return type.cast(value);
+    }
+
+    /**
+     * Returns a fingerprint of everything in a snapshot, which changes whenever a signature (type parameters, bounds
+     * and thrown types included), modifier, supertype or annotation of the type or its members changes, but not when
+     * only method bodies do.
+     *
+     * @param version mixed into the fingerprint, so changing it invalidates every entry
+     */
+    public static byte[] fingerprint(TypeSnapshot snapshot, String version) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        putString(hasher, version);
+        putType(hasher, snapshot);
+        return hasher.hash().asBytes();
+    }
+
+    private static void putType(Hasher hasher, TypeSnapshot type) {
+        putString(hasher, type.getQualifiedName());
+        putString(hasher, type.getBinaryName());
+        putString(hasher, type.getKind().name());
+        putString(hasher, type.getModifiers().toString());
+        putStrings(hasher, type.getTypeParameters());
+        putString(hasher, String.valueOf(type.getSuperclass()));
+        putStrings(hasher, type.getInterfaces());
+        putAnnotations(hasher, type.getAnnotations());
+        hasher.putInt(type.getMembers().size());
+        for (MemberSnapshot each : type.getMembers()) {
+            putString(hasher, each.getName());
+            putString(hasher, each.getKind().name());
+            putString(hasher, each.getModifiers().toString());
+            putStrings(hasher, each.getTypeParameters());
+            putString(hasher, each.getType());
+            putStrings(hasher, each.getParameterNames());
+            putStrings(hasher, each.getParameterTypes());
+            hasher.putBoolean(each.isVarArgs());
+            putStrings(hasher, each.getThrownTypes());
+            putValue(hasher, each.getConstantValue());
+            putAnnotations(hasher, each.getAnnotations());
+        }
+        hasher.putInt(type.getNestedTypes().size());
+        for (TypeSnapshot each : type.getNestedTypes()) {
+            putType(hasher, each);
+        }
+    }
+
+    private static void putAnnotations(Hasher hasher, List<AnnotationSnapshot> annotations) {
+        hasher.putInt(annotations.size());
+        for (AnnotationSnapshot each : annotations) {
+            putValue(hasher, each);
+        }
+    }
+
+    private static void putValue(Hasher hasher, Object value) {
+        if (value == null) {
+            hasher.putByte((byte) 0);
+        } else if (value instanceof AnnotationSnapshot) {
+            AnnotationSnapshot annotation = (AnnotationSnapshot) value;
+            hasher.putByte((byte) 1);
+            putString(hasher, annotation.getAnnotationType());
+            hasher.putInt(annotation.getValues().size());
+            for (Map.Entry<String, Object> each : annotation.getValues().entrySet()) {
+                putString(hasher, each.getKey());
+                putValue(hasher, each.getValue());
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            hasher.putByte((byte) 2);
+            hasher.putInt(list.size());
+            for (Object each : list) {
+                putValue(hasher, each);
+            }
+        } else {
+            hasher.putByte((byte) 3);
+            putString(hasher, value.getClass().getName());
+            putString(hasher, value.toString());
+        }
+    }
+
+    private static void putStrings(Hasher hasher, List<String> strings) {
+        hasher.putInt(strings.size());
+        for (String each : strings) {
+            putString(hasher, each);
+        }
+    }
+
+    private static void putString(Hasher hasher, String string) {
+        hasher.putInt(string.length());
+        hasher.putString(string, StandardCharsets.UTF_8);
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+    private static long crc(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(offset);
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[Math.min(length, 64 * 1024)];
+        int remaining = length;
+        while (remaining > 0) {
+            int n = Math.min(remaining, chunk.length);
+            in.get(chunk, 0, n);
+            crc.update(chunk, 0, n);
+            remaining -= n;
+        }
+        return crc.getValue();
+    }
+
+    private static final Comparator<Map.Entry<String, Entry>> MOST_RECENT_FIRST = new Comparator<Map.Entry<String, Entry>>() {
+        @Override
+        public int compare(Map.Entry<String, Entry> o1, Map.Entry<String, Entry> o2) {
+            int result = Long.compare(o2.getValue().generation, o1.getValue().generation);
+            return result != 0 ? result : o1.getKey().compareTo(o2.getKey());
+        }
+    };
+
+    /**
+     * Resolves only the classes {@link #deserialize} allows.
+     */
+    private static final class RestrictedInputStream extends ObjectInputStream {
+        private static final Set<Class<?>> ALLOWED = new HashSet<Class<?>>(Arrays.asList(
+                Object.class, String.class, Number.class, Boolean.class, Character.class, Byte.class, Short.class,
+                Integer.class, Long.class, Float.class, Double.class, Enum.class,
+                TypeSnapshot.class, MemberSnapshot.class, AnnotationSnapshot.class));
+        private static final Set<String> ALLOWED_PACKAGES = new HashSet<>(Arrays.asList(
+                "java.util", "com.google.common.collect"));
+
+        private final Class<?> type;
+        private final ClassLoader loader;
+
+        RestrictedInputStream(byte[] payload, Class<?> type, @Nullable ClassLoader loader) throws IOException {
+            super(new ByteArrayInputStream(payload));
+            this.type = type;
+            this.loader = loader;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            Class<?> resolved = Class.forName(desc.getName(), false, loader);
+            Class<?> component = resolved;
+            while (component.isArray()) {
+                component = component.getComponentType();
+            }
+            if (component.isPrimitive() || component.isEnum() || ALLOWED.contains(component)
+                    || ALLOWED_PACKAGES.contains(packageOf(component)) || packageOf(component).equals(packageOf(type))) {
+                return resolved;
+            }
+            throw new InvalidClassException(desc.getName(), "not allowed in the analysis cache");
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+            throw new InvalidClassException(Arrays.toString(interfaces), "proxies are not allowed in the analysis cache");
+        }
+
+        private static String packageOf(Class<?> type) {
+            String name = type.getName();
+            int dot = name.lastIndexOf('.');
+            return dot < 0 ? "" : name.substring(0, dot);
+        }
+    }
+
+    /**
+     * A cached payload, either held on its own or located in the contents of the file the cache was opened from.
+     */
+    private static final class Entry {
+        private final byte[] fingerprint;
+        private long generation;
+        private byte[] payload;
+        private int offset;
+        private final int length;
+        private final long crc;
+
+        Entry(byte[] fingerprint, long generation, byte[] payload, int offset, int length, long crc) {
+            this.fingerprint = fingerprint;
+            this.generation = generation;
+            this.payload = payload;
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+        }
+
+        /**
+         * Returns the payload, copying it out of the file's contents if needed, or null if it fails its checksum.
+         */
+        byte[] payload(@Nullable ByteBuffer contents) {
+            if (payload == null) {
+                byte[] copy = new byte[length];
+                ByteBuffer in = contents.duplicate();
+                in.position(offset);
+                in.get(copy);
+                if (crc(copy) != crc) {
+                    return null;
+                }
+                payload = copy;
+            }
+            return payload;
+        }
+    }
+}
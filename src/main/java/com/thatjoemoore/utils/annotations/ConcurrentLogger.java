@@ -0,0 +1,195 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.Nonnull;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import java.lang.annotation.Annotation;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A logger that can be used from worker threads.
+ * <p>
+ * The thread that creates it owns it, and logs straight through, as with any other {@link Logger}.  Every other thread
+ * only adds its messages to a lock-free queue, so it never blocks and never touches the {@link Messager}.  The owner
+ * prints the queued messages, in the order they were queued, the next time it logs, calls {@link #drain()},
+ * {@link #flush()} or {@link #endRound()}.  {@link AbstractProcessorExt} drains after every round.
+ * <p>
+ * Messages logged off the owner thread about an annotation type have their mirror looked up when they are printed,
+ * since the compiler's model can only be used on the owner thread.  A fatal message still throws on the worker; the
+ * exception is also kept, and thrown from the next {@link #drain()}, so it reaches the processor thread even if the
+ * worker's caller swallows it.
+ */
+public class ConcurrentLogger extends Logger {
+    private final Thread owner;
+    private final Queue<Queued> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * The first fatal message logged off the owner thread since the last drain, if any.
+     */
+    private final AtomicReference<AbstractProcessorExt.AbortProcessingException> pendingFatal = new AtomicReference<>();
+
+    public ConcurrentLogger(@Nonnull Messager messager) {
+        this(messager, false);
+    }
+
+    public ConcurrentLogger(@Nonnull Messager messager, boolean buffered) {
+        this(messager, buffered, Level.OTHER);
+    }
+
+    public ConcurrentLogger(@Nonnull Messager messager, boolean buffered, @Nonnull Level threshold) {
+        super(messager, buffered, threshold);
+        this.owner = Thread.currentThread();
+    }
+
+    /**
+     * Returns true if the current thread is the one that owns this logger.
+     */
+    public boolean isOwner() {
+        return Thread.currentThread() == owner;
+    }
+
+    /**
+     * Prints every message queued by other threads.  If one of them logged a fatal message, its
+     * {@link AbstractProcessorExt.AbortProcessingException} is thrown once the queue is empty.
+     *
+     * @throws IllegalStateException if called off the owner thread
+     */
+    public void drain() {
+        checkOwner();
+        print();
+        AbstractProcessorExt.AbortProcessingException fatal = pendingFatal.getAndSet(null);
+        if (fatal != null) {
+            throw fatal;
+        }
+    }
+
+    /**
+     * Prints every message queued by other threads, and forgets any fatal one, which is already on its way to the
+     * processor thread.
+     */
+    void drainQuietly() {
+        checkOwner();
+        print();
+        pendingFatal.set(null);
+    }
+
+    private void print() {
+        Queued each;
+        while ((each = queue.poll()) != null) {
+            AnnotationMirror mirror = each.annotationType != null
+                    ? super.mirror(each.level, each.elem, each.annotationType) : each.annotation;
+            super.emit(each.level, each.message, each.elem, mirror, each.value);
+        }
+    }
+
+    @Override
+    public void flush() {
+        checkOwner();
+        print();
+        super.flush();
+    }
+
+    @Override
+    public void endRound() {
+        checkOwner();
+        print();
+        super.endRound();
+    }
+
+    @Override
+    public void abortIfFatal() {
+        checkOwner();
+        print();
+        super.abortIfFatal();
+    }
+
+    @Override
+    void abortUnlessAggregating(CharSequence message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
+        try {
+            super.abortUnlessAggregating(message, elem, annotation, value);
+        } catch (AbstractProcessorExt.AbortProcessingException ex) {
+            if (!isOwner()) {
+                pendingFatal.compareAndSet(null, ex);
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    AnnotationMirror mirror(Level level, Element elem, Class<? extends Annotation> annotation) {
+        return isOwner() ? super.mirror(level, elem, annotation) : null;
+    }
+
+    @Override
+    void emit(Level level, CharSequence message, Element elem, Class<? extends Annotation> annotation) {
+        if (!isOwner()) {
+            if (isEnabled(level)) {
+                queue.add(new Queued(level, message.toString(), elem, null, annotation, null));
+            }
+            return;
+        }
+        print();
+        super.emit(level, message, elem, super.mirror(level, elem, annotation), null);
+    }
+
+    @Override
+    void emit(Level level, CharSequence message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
+        if (!isOwner()) {
+            if (isEnabled(level)) {
+                queue.add(new Queued(level, message.toString(), elem, annotation, null, value));
+            }
+            return;
+        }
+        print();
+        super.emit(level, message, elem, annotation, value);
+    }
+
+    private void checkOwner() {
+        if (!isOwner()) {
+            throw new IllegalStateException("Only " + owner.getName() + " can print this logger's messages");
+        }
+    }
+
+    /**
+     * A message logged off the owner thread.  The message is copied to a String, since a mutable CharSequence could
+     * change before it is printed.
+     */
+    private static final class Queued {
+        private final Level level;
+        private final String message;
+        private final Element elem;
+        private final AnnotationMirror annotation;
+        private final Class<? extends Annotation> annotationType;
+        private final AnnotationValue value;
+
+        private Queued(Level level, String message, Element elem, AnnotationMirror annotation,
+                       Class<? extends Annotation> annotationType, AnnotationValue value) {
+            this.level = level;
+            this.message = message;
+            this.elem = elem;
+            this.annotation = annotation;
+            this.annotationType = annotationType;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.QualifiedNameable;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Streams every diagnostic a {@link Logger} logs to a machine-readable report in the source output, as JSON Lines or
+ * as SARIF 2.1.0.  Entries are written through a buffered writer as they are logged, so the report costs the same
+ * memory however many messages there are.
+ * <p>
+ * Elements are identified by name, as SARIF logical locations; javac's model doesn't expose source positions.  If the
+ * report can't be written, the processor is warned once and the report is dropped.
+ */
+@ParametersAreNonnullByDefault
+final class DiagnosticReport {
+
+    /**
+     * The values {@link ProcessorOptions#LOG_REPORT} may take.
+     */
+    enum Format {
+        JSONL("jsonl"), SARIF("sarif");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        static Format of(String value) {
+            for (Format each : values()) {
+                if (each.extension.equalsIgnoreCase(value.trim())) {
+                    return each;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Filer filer;
+    private final Messager messager;
+    private final Format format;
+    private final String processor;
+    private Writer out;
+    /**
+     * The SARIF document, which stays open across entries.  Unused for JSON Lines, where each entry is a document.
+     */
+    private Json sarif;
+    private boolean failed;
+    private boolean closed;
+
+    DiagnosticReport(Filer filer, Messager messager, Format format, String processor) {
+        this.filer = requireNonNull(filer, "filer cannot be null");
+        this.messager = requireNonNull(messager, "messager cannot be null");
+        this.format = requireNonNull(format, "format cannot be null");
+        this.processor = requireNonNull(processor, "processor cannot be null");
+    }
+
+    /**
+     * Returns the path of the report within the source output.
+     */
+    String path() {
+        return "annotationutils-diagnostics/" + processor + "." + format.extension;
+    }
+
+    void record(Logger.Level level, CharSequence message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
+        if (failed || closed) {
+            return;
+        }
+        try {
+            open();
+            if (format == Format.JSONL) {
+                new Json(out).beginObject()
+                        .name("level").value(level.name().toLowerCase(Locale.ROOT))
+                        .name("message").value(message.toString())
+                        .name("element").value(elem == null ? null : name(elem))
+                        .name("annotation").value(annotation == null ? null : annotation.getAnnotationType().toString())
+                        .name("value").value(value == null ? null : value.toString())
+                        .endObject();
+                out.write('\n');
+            } else {
+                sarif.beginObject()
+                        .name("ruleId").value(level.name().toLowerCase(Locale.ROOT))
+                        .name("level").value(sarifLevel(level))
+                        .name("message").beginObject().name("text").value(message.toString()).endObject();
+                if (elem != null) {
+                    sarif.name("locations").beginArray().beginObject()
+                            .name("logicalLocations").beginArray().beginObject()
+                            .name("fullyQualifiedName").value(name(elem))
+                            .name("kind").value(sarifKind(elem))
+                            .endObject().endArray()
+                            .endObject().endArray();
+                }
+                if (annotation != null || value != null) {
+                    sarif.name("properties").beginObject()
+                            .name("annotation").value(annotation == null ? null : annotation.getAnnotationType().toString())
+                            .name("value").value(value == null ? null : value.toString())
+                            .endObject();
+                }
+                sarif.endObject();
+            }
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Writes out whatever is buffered, so the report is readable up to this point.
+     */
+    void flush() {
+        if (out == null || failed || closed) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Finishes the report.  A report is written even if nothing was logged, so its absence always means something
+     * went wrong.
+     */
+    void close() {
+        if (failed || closed) {
+            return;
+        }
+        try {
+            open();
+            if (format == Format.SARIF) {
+                sarif.endArray().endObject().endArray().endObject();
+            }
+            out.close();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+        closed = true;
+    }
+
+    private void open() throws IOException {
+        if (out != null) {
+            return;
+        }
+        out = new BufferedWriter(filer.createResource(StandardLocation.SOURCE_OUTPUT, "", path()).openWriter(), BUFFER_SIZE);
+        if (format == Format.SARIF) {
+            sarif = new Json(out).beginObject()
+                    .name("$schema").value("https://json.schemastore.org/sarif-2.1.0.json")
+                    .name("version").value("2.1.0")
+                    .name("runs").beginArray().beginObject()
+                    .name("tool").beginObject().name("driver").beginObject().name("name").value(processor).endObject().endObject()
+                    .name("results").beginArray();
+        }
+    }
+
+    private void fail(IOException ex) {
+        failed = true;
+        messager.printMessage(Diagnostic.Kind.WARNING, "Unable to write diagnostics report " + path() + ": " + ex.getMessage());
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // Already reported the first problem
+            }
+        }
+    }
+
+    /**
+     * Returns the qualified name of a type or package, or {@code Type#member} for anything inside a type.
+     */
+    static String name(Element elem) {
+        if (elem instanceof QualifiedNameable) {
+            return ((QualifiedNameable) elem).getQualifiedName().toString();
+        }
+        Element enclosing = elem.getEnclosingElement();
+        if (enclosing == null) {
+            return elem.getSimpleName().toString();
+        }
+        return name(enclosing) + '#' + elem.getSimpleName();
+    }
+
+    private static String sarifLevel(Logger.Level level) {
+        switch (level) {
+            case FATAL:
+            case ERROR:
+                return "error";
+            case MANDATORY_WARNING:
+            case WARNING:
+                return "warning";
+            case NOTE:
+                return "note";
+            default:
+                return "none";
+        }
+    }
+
+    private static String sarifKind(Element elem) {
+        if (elem instanceof PackageElement) {
+            return "namespace";
+        } else if (elem.getKind().isClass() || elem.getKind().isInterface()) {
+            return "type";
+        } else if (elem.getKind().isField()) {
+            return "member";
+        }
+        switch (elem.getKind()) {
+            case METHOD:
+            case CONSTRUCTOR:
+                return "function";
+            case PARAMETER:
+                return "parameter";
+            default:
+                return "element";
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.lang.model.element.TypeElement;
+import java.lang.annotation.Annotation;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The types of a set, by each annotation they are effectively annotated with, from
+ * {@link ElementsExt#indexEffectiveAnnotations}.
+ */
+@ParametersAreNonnullByDefault
+public final class EffectiveAnnotationIndex {
+    private final Map<String, ImmutableList<TypeElement>> types;
+
+    private EffectiveAnnotationIndex(Map<String, ImmutableList<TypeElement>> types) {
+        this.types = types;
+    }
+
+    static EffectiveAnnotationIndex build(Iterable<? extends TypeElement> types, EffectiveAnnotationResolver resolver) {
+        Map<String, ImmutableList.Builder<TypeElement>> builders = new HashMap<>();
+        for (TypeElement type : types) {
+            for (String each : resolver.effective(type).keySet()) {
+                ImmutableList.Builder<TypeElement> builder = builders.get(each);
+                if (builder == null) {
+                    builder = ImmutableList.builder();
+                    builders.put(each, builder);
+                }
+                builder.add(type);
+            }
+        }
+        Map<String, ImmutableList<TypeElement>> built = new HashMap<>();
+        for (Map.Entry<String, ImmutableList.Builder<TypeElement>> each : builders.entrySet()) {
+            built.put(each.getKey(), each.getValue().build());
+        }
+        return new EffectiveAnnotationIndex(built);
+    }
+
+    /**
+     * Returns the types effectively annotated with {@code annotation}, in the order they were indexed.
+     */
+    public List<TypeElement> annotatedWith(Class<? extends Annotation> annotation) {
+        return annotatedWith(annotation.getCanonicalName());
+    }
+
+    /**
+     * Returns the types effectively annotated with the annotation type called {@code qualifiedName}, in the order they
+     * were indexed.
+     */
+    public List<TypeElement> annotatedWith(String qualifiedName) {
+        ImmutableList<TypeElement> result = types.get(qualifiedName);
+        return result == null ? ImmutableList.<TypeElement>of() : result;
+    }
+}
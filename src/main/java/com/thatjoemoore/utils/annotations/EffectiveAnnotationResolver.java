@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.google.common.collect.ImmutableMap;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.lang.annotation.Inherited;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Works out the effective annotations of types, for {@link ElementsExt#getEffectiveAnnotations}: those present on the
+ * type itself, those it inherits from its superclasses through {@link Inherited}, and, transitively, the annotations
+ * on each of those annotation types.  Everything is remembered per type, for the rest of the round;
+ * {@link ElementsExt#newRound} replaces the resolver, since a later round may generate annotation types.
+ * <p>
+ * Annotations are keyed by qualified name, so that the same annotation type is only counted once however it is
+ * reached.  Cycles, such as {@code @Documented} annotating itself, end where they come back to a type already seen.
+ */
+final class EffectiveAnnotationResolver {
+    private static final String INHERITED = Inherited.class.getCanonicalName();
+
+    /**
+     * The annotations present on each type: its own, and those it inherits.
+     */
+    private final Map<TypeElement, ImmutableMap<String, TypeElement>> present = new IdentityHashMap<>();
+    /**
+     * Each annotation type and every annotation type reachable through annotations on it.
+     */
+    private final Map<TypeElement, ImmutableMap<String, TypeElement>> closures = new IdentityHashMap<>();
+    /**
+     * Each type's effective annotations.
+     */
+    private final Map<TypeElement, ImmutableMap<String, TypeElement>> effective = new IdentityHashMap<>();
+
+    ImmutableMap<String, TypeElement> effective(TypeElement type) {
+        ImmutableMap<String, TypeElement> result = effective.get(type);
+        if (result == null) {
+            Map<String, TypeElement> all = new LinkedHashMap<>();
+            for (TypeElement each : present(type).values()) {
+                all.putAll(closure(each));
+            }
+            result = ImmutableMap.copyOf(all);
+            effective.put(type, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the annotations present on {@code type}: its own, then any {@link Inherited} one on its superclass that
+     * it doesn't have itself.
+     */
+    private ImmutableMap<String, TypeElement> present(TypeElement type) {
+        ImmutableMap<String, TypeElement> result = present.get(type);
+        if (result != null) {
+            return result;
+        }
+        // Stands in while the superclasses are worked out, in case a broken class hierarchy is cyclic
+        present.put(type, ImmutableMap.<String, TypeElement>of());
+        Map<String, TypeElement> all = new LinkedHashMap<>();
+        addDirect(type, all);
+        TypeElement superclass = superclass(type);
+        if (superclass != null) {
+            for (Map.Entry<String, TypeElement> each : present(superclass).entrySet()) {
+                if (!all.containsKey(each.getKey()) && isInherited(each.getValue())) {
+                    all.put(each.getKey(), each.getValue());
+                }
+            }
+        }
+        result = ImmutableMap.copyOf(all);
+        present.put(type, result);
+        return result;
+    }
+
+    /**
+     * Returns {@code annotation} and every annotation type reachable from it through the annotations on annotation
+     * types.
+     */
+    private ImmutableMap<String, TypeElement> closure(TypeElement annotation) {
+        ImmutableMap<String, TypeElement> result = closures.get(annotation);
+        if (result != null) {
+            return result;
+        }
+        Map<String, TypeElement> all = new LinkedHashMap<>();
+        all.put(annotation.getQualifiedName().toString(), annotation);
+        Deque<TypeElement> pending = new ArrayDeque<>();
+        pending.add(annotation);
+        while (!pending.isEmpty()) {
+            TypeElement next = pending.poll();
+            ImmutableMap<String, TypeElement> known = next == annotation ? null : closures.get(next);
+            if (known != null) {
+                all.putAll(known);
+                continue;
+            }
+            Map<String, TypeElement> direct = new LinkedHashMap<>();
+            addDirect(next, direct);
+            for (Map.Entry<String, TypeElement> each : direct.entrySet()) {
+                if (!all.containsKey(each.getKey())) {
+                    all.put(each.getKey(), each.getValue());
+                    pending.add(each.getValue());
+                }
+            }
+        }
+        result = ImmutableMap.copyOf(all);
+        closures.put(annotation, result);
+        return result;
+    }
+
+    private static boolean isInherited(TypeElement annotation) {
+        for (AnnotationMirror each : annotation.getAnnotationMirrors()) {
+            if (((TypeElement) each.getAnnotationType().asElement()).getQualifiedName().contentEquals(INHERITED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addDirect(Element element, Map<String, TypeElement> into) {
+        for (AnnotationMirror each : element.getAnnotationMirrors()) {
+            Element type = each.getAnnotationType().asElement();
+            if (type.getKind() == ElementKind.ANNOTATION_TYPE) {
+                TypeElement annotation = (TypeElement) type;
+                into.put(annotation.getQualifiedName().toString(), annotation);
+            }
+        }
+    }
+
+    private static TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+}
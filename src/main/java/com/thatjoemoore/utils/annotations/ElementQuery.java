@@ -0,0 +1,257 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.google.common.collect.AbstractIterator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A lazy query over elements, such as {@code ElementsExt.members(type).methods().withModifiers(PUBLIC).first()}.
+ * <p>
+ * Narrowing a query returns a new one and looks at nothing.  Elements are only looked at when the query is run, one at
+ * a time, with every condition checked in a single pass; {@link #first()}, {@link #any()} and {@link #none()} stop at
+ * the first match.  The kinds and modifiers to match are worked out once, as {@link EnumSet}s, which are bitmasks, so
+ * checking an element's kind and modifiers doesn't allocate.
+ */
+@ParametersAreNonnullByDefault
+public final class ElementQuery<E extends Element> implements Iterable<E> {
+    private static final String[] NO_ANNOTATIONS = new String[0];
+
+    private final Iterable<? extends Element> source;
+    /**
+     * The kinds to match, or null for any kind.
+     */
+    private final Set<ElementKind> kinds;
+    private final Set<Modifier> required;
+    private final Set<Modifier> excluded;
+    /**
+     * The qualified names of the annotations every match must have.
+     */
+    private final String[] annotations;
+    /**
+     * The simple name every match must have, or null for any name.
+     */
+    private final CharSequence name;
+
+    private ElementQuery(Iterable<? extends Element> source, Set<ElementKind> kinds, Set<Modifier> required,
+                         Set<Modifier> excluded, String[] annotations, CharSequence name) {
+        this.source = source;
+        this.kinds = kinds;
+        this.required = required;
+        this.excluded = excluded;
+        this.annotations = annotations;
+        this.name = name;
+    }
+
+    /**
+     * Returns a query over {@code elements}.
+     */
+    public static ElementQuery<Element> of(Iterable<? extends Element> elements) {
+        return new ElementQuery<>(requireNonNull(elements, "elements cannot be null"), null,
+                EnumSet.noneOf(Modifier.class), EnumSet.noneOf(Modifier.class), NO_ANNOTATIONS, null);
+    }
+
+    public ElementQuery<ExecutableElement> methods() {
+        return ofKinds(EnumSet.of(ElementKind.METHOD));
+    }
+
+    public ElementQuery<ExecutableElement> constructors() {
+        return ofKinds(EnumSet.of(ElementKind.CONSTRUCTOR));
+    }
+
+    /**
+     * Narrows to fields, including enum constants.
+     */
+    public ElementQuery<VariableElement> fields() {
+        return ofKinds(EnumSet.of(ElementKind.FIELD, ElementKind.ENUM_CONSTANT));
+    }
+
+    /**
+     * Narrows to classes, interfaces, enums and annotation types.
+     */
+    public ElementQuery<TypeElement> types() {
+        return ofKinds(EnumSet.of(ElementKind.CLASS, ElementKind.INTERFACE, ElementKind.ENUM, ElementKind.ANNOTATION_TYPE));
+    }
+
+    /**
+     * Narrows to elements of any of {@code kinds}.
+     */
+    public ElementQuery<E> ofKind(ElementKind first, ElementKind... rest) {
+        return ofKinds(EnumSet.of(first, rest));
+    }
+
+    /**
+     * Narrows to elements that have all of {@code modifiers}.
+     */
+    public ElementQuery<E> withModifiers(Modifier first, Modifier... rest) {
+        Set<Modifier> required = EnumSet.of(first, rest);
+        required.addAll(this.required);
+        return new ElementQuery<>(source, kinds, required, excluded, annotations, name);
+    }
+
+    /**
+     * Narrows to elements that have none of {@code modifiers}.
+     */
+    public ElementQuery<E> withoutModifiers(Modifier first, Modifier... rest) {
+        Set<Modifier> excluded = EnumSet.of(first, rest);
+        excluded.addAll(this.excluded);
+        return new ElementQuery<>(source, kinds, required, excluded, annotations, name);
+    }
+
+    /**
+     * Narrows to elements directly annotated with {@code annotation}.
+     */
+    public ElementQuery<E> annotatedWith(Class<? extends Annotation> annotation) {
+        String[] annotations = Arrays.copyOf(this.annotations, this.annotations.length + 1);
+        annotations[this.annotations.length] = annotation.getCanonicalName();
+        return new ElementQuery<>(source, kinds, required, excluded, annotations, name);
+    }
+
+    /**
+     * Narrows to elements whose simple name is {@code name}.
+     */
+    public ElementQuery<E> named(CharSequence name) {
+        return new ElementQuery<>(source, kinds, required, excluded, annotations, requireNonNull(name, "name cannot be null"));
+    }
+
+    /**
+     * Returns the first match, or null if there is none.
+     */
+    public E first() {
+        Iterator<E> matches = iterator();
+        return matches.hasNext() ? matches.next() : null;
+    }
+
+    /**
+     * Returns true if anything matches.
+     */
+    public boolean any() {
+        return iterator().hasNext();
+    }
+
+    /**
+     * Returns true if nothing matches.
+     */
+    public boolean none() {
+        return !iterator().hasNext();
+    }
+
+    public int count() {
+        int count = 0;
+        for (Element each : source) {
+            if (matches(each)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns every match, in order.
+     */
+    public List<E> toList() {
+        List<E> matches = new ArrayList<>();
+        for (E each : this) {
+            matches.add(each);
+        }
+        return matches.isEmpty() ? Collections.<E>emptyList() : matches;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<? extends Element> elements = source.iterator();
+        return new AbstractIterator<E>() {
+            @Override
+            protected E computeNext() {
+                while (elements.hasNext()) {
+                    Element next = elements.next();
+                    if (matches(next)) {
+                        @SuppressWarnings("unchecked")
+                        E match = (E) next;
+                        return match;
+                    }
+                }
+                return endOfData();
+            }
+        };
+    }
+
+    private <T extends Element> ElementQuery<T> ofKinds(Set<ElementKind> kinds) {
+        if (this.kinds != null) {
+            kinds.retainAll(this.kinds);
+        }
+        return new ElementQuery<>(source, kinds, required, excluded, annotations, name);
+    }
+
+    private boolean matches(Element element) {
+        if (kinds != null && !kinds.contains(element.getKind())) {
+            return false;
+        }
+        if (!required.isEmpty() || !excluded.isEmpty()) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (!modifiers.containsAll(required)) {
+                return false;
+            }
+            if (!excluded.isEmpty()) {
+                for (Modifier each : excluded) {
+                    if (modifiers.contains(each)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        if (name != null && !element.getSimpleName().contentEquals(name)) {
+            return false;
+        }
+        for (String each : annotations) {
+            if (!isAnnotated(element, each)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAnnotated(Element element, String annotation) {
+        for (AnnotationMirror each : element.getAnnotationMirrors()) {
+            if (((TypeElement) each.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
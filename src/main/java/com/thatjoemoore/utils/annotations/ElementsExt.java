@@ -18,16 +18,25 @@ package com.thatjoemoore.utils.annotations;
 
 import com.google.auto.common.MoreElements;
 import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.element.*;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import java.lang.annotation.Annotation;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Created by adm.jmooreoa on 1/1/15.
@@ -36,46 +45,284 @@ import java.util.Map;
 public final class ElementsExt {
     private ElementsExt() {}
 
+    /**
+     * Returns the nearest package of {@code element}, itself or a parent, annotated with {@code annotationClass}, or
+     * null if there is none.
+     * <p>
+     * The answer for every package on the way up, whether it has the annotation or not, is remembered for the rest of
+     * the compilation, so each package is only looked at once per annotation type.  Processors that don't extend
+     * {@link AbstractProcessorExt} should call {@link #newRound} at the start of each round, so that new
+     * {@code package-info} files are seen, and {@link #release} once processing is over.
+     */
     public static PackageElement getFirstAnnotatedPackage(TypeElement element, Class<? extends Annotation> annotationClass, Elements elements) {
-        for (PackageElement each : getPackages(element, elements)) {
-            Optional<AnnotationMirror> mirror = MoreElements.getAnnotationMirror(each, annotationClass);
-            if (mirror.isPresent()) {
-                return each;
-            }
+        PackageElement pack = MoreElements.getPackage(element);
+        if (pack.isUnnamed()) {
+            return null;
         }
-        return null;
+        return modelCache(elements).firstAnnotated(pack, annotationClass, elements);
+    }
+
+    /**
+     * Forgets the views and effective annotations worked out in earlier rounds of {@code elements}' compilation, since
+     * types generated since may change them.  What is known about its packages is only forgotten if {@code roundEnv}
+     * has new packages, which may bring annotations or parents that weren't there before.
+     * {@link AbstractProcessorExt} calls this at the start of every round.
+     */
+    public static void newRound(RoundEnvironment roundEnv, Elements elements) {
+        modelCache(elements).newRound(roundEnv);
+    }
+
+    /**
+     * Forgets everything worked out about {@code elements}' compilation, so that it can be collected.  The cached
+     * elements refer back to their compilation, so nothing else releases it.  {@link AbstractProcessorExt} calls this
+     * at the end of the round where processing is over; the helpers still work if called afterwards, but start over.
+     */
+    public static void release(Elements elements) {
+        MODEL_CACHES.invalidate(elements);
     }
 
+    /**
+     * Returns the package of {@code element}, then each of its parent packages that exists, up to the top level.
+     * Returns an empty list for the unnamed package.
+     * <p>
+     * Each package's list is worked out once per compilation and shared, so the list returned is immutable.
+     */
     public static List<PackageElement> getPackages(Element element, Elements elements) {
-        List<PackageElement> packs = new ArrayList<>();
         PackageElement pack = MoreElements.getPackage(element);
-        while (pack != null && !pack.isUnnamed()) {
-            packs.add(pack);
+        if (pack.isUnnamed()) {
+            return ImmutableList.of();
+        }
+        return modelCache(elements).packages(pack, elements);
+    }
+
+    /**
+     * What is known about the model of each compilation in progress, keyed by its Elements.  Values are held strongly,
+     * so the helpers keep what they have worked out whoever calls them.  The cached elements reach their
+     * compilation's Elements through javac's own context, though, so the weak keys alone never let an entry go;
+     * {@link #release} does, so that a Gradle daemon doesn't hold on to a finished compilation.
+     */
+    private static final Cache<Elements, ModelCache> MODEL_CACHES = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    /**
+     * Returns the model cache of the compilation {@code elements} belongs to.
+     */
+    static ModelCache modelCache(Elements elements) {
+        try {
+            return MODEL_CACHES.get(elements, new Callable<ModelCache>() {
+                @Override
+                public ModelCache call() {
+                    return new ModelCache();
+                }
+            });
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Lookups that only depend on the model, remembered until {@link ElementsExt#newRound} finds a round may have
+     * changed them.  Elements are compared by identity, so a compiler that makes new elements each round simply gets
+     * new entries; those of earlier rounds are dropped along with the cache.
+     */
+    static final class ModelCache {
+        /**
+         * Each package's list of itself and its parents, built on the parent's list.
+         */
+        private final Map<PackageElement, ImmutableList<PackageElement>> packages = new IdentityHashMap<>();
+        /**
+         * For each annotation type, the nearest package annotated with it, or absent if there is none, for each package
+         * looked up so far.
+         */
+        private final Map<Class<? extends Annotation>, Map<PackageElement, Optional<PackageElement>>> annotated = new HashMap<>();
+        /**
+         * Each annotation type's attributes, by name.
+         */
+        private final Map<Element, Map<String, ExecutableElement>> attributes = new IdentityHashMap<>();
+        /**
+         * The views made of each mirror this round.
+         */
+        private final Map<AnnotationMirror, Annotation> views = new IdentityHashMap<>();
+        private EffectiveAnnotationResolver effectiveAnnotations;
 
+        private EffectiveAnnotationResolver effectiveAnnotations() {
+            if (effectiveAnnotations == null) {
+                effectiveAnnotations = new EffectiveAnnotationResolver();
+            }
+            return effectiveAnnotations;
+        }
+
+        void newRound(RoundEnvironment roundEnv) {
+            views.clear();
+            effectiveAnnotations = null;
+            if ((packages.isEmpty() && annotated.isEmpty())
+                    || ElementFilter.packagesIn(roundEnv.getRootElements()).isEmpty()) {
+                return;
+            }
+            packages.clear();
+            annotated.clear();
+        }
+
+        private Map<String, ExecutableElement> attributes(AnnotationMirror mirror) {
+            Element type = mirror.getAnnotationType().asElement();
+            Map<String, ExecutableElement> result = attributes.get(type);
+            if (result == null) {
+                result = new HashMap<>();
+                for (ExecutableElement each : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                    result.put(each.getSimpleName().toString(), each);
+                }
+                attributes.put(type, result);
+            }
+            return result;
+        }
+
+        private PackageElement firstAnnotated(PackageElement pack, Class<? extends Annotation> annotationClass, Elements elements) {
+            Map<PackageElement, Optional<PackageElement>> nearest = annotated.get(annotationClass);
+            if (nearest == null) {
+                nearest = new IdentityHashMap<>();
+                annotated.put(annotationClass, nearest);
+            }
+            return firstAnnotated(pack, annotationClass, nearest, elements).orNull();
+        }
+
+        private Optional<PackageElement> firstAnnotated(PackageElement pack, Class<? extends Annotation> annotationClass,
+                                                        Map<PackageElement, Optional<PackageElement>> nearest, Elements elements) {
+            Optional<PackageElement> result = nearest.get(pack);
+            if (result != null) {
+                return result;
+            }
+            if (MoreElements.getAnnotationMirror(pack, annotationClass).isPresent()) {
+                result = Optional.of(pack);
+            } else {
+                List<PackageElement> chain = packages(pack, elements);
+                result = chain.size() > 1
+                        ? firstAnnotated(chain.get(1), annotationClass, nearest, elements)
+                        : Optional.<PackageElement>absent();
+            }
+            nearest.put(pack, result);
+            return result;
+        }
+
+        private ImmutableList<PackageElement> packages(PackageElement pack, Elements elements) {
+            ImmutableList<PackageElement> result = packages.get(pack);
+            if (result != null) {
+                return result;
+            }
             CharSequence qual = pack.getQualifiedName();
             int end = qual.length() - pack.getSimpleName().length() - 1;
-            if (end <= 0) {
-                return packs;
+            PackageElement parent = end <= 0 ? null : elements.getPackageElement(qual.subSequence(0, end));
+            if (parent == null || parent.isUnnamed()) {
+                result = ImmutableList.of(pack);
+            } else {
+                result = ImmutableList.<PackageElement>builder().add(pack).addAll(packages(parent, elements)).build();
             }
-
-            CharSequence name = qual.subSequence(0, end);
-            pack = elements.getPackageElement(name);
+            packages.put(pack, result);
+            return result;
         }
-        return packs;
     }
 
+    /**
+     * Returns the value of {@code mirror}'s attribute called {@code name}, or its default if it isn't given.  Returns
+     * null if {@code mirror} is null or has no such attribute.  To read more than one attribute of the same mirror,
+     * {@link #annotationValues} is cheaper.  {@link AnnotationValues} decodes the result.
+     */
     public static AnnotationValue annotationValue(@Nullable AnnotationMirror mirror, String name, Elements elements) {
         if (mirror == null) {
             return null;
         }
-        Map<? extends ExecutableElement, ? extends AnnotationValue> map = elements.getElementValuesWithDefaults(mirror);
-        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> each : map.entrySet()) {
-            if (each.getKey().getSimpleName().toString().equals(name)) {
-                return each.getValue();
-            }
+        return value(modelCache(elements).attributes(mirror).get(name), mirror.getElementValues());
+    }
+
+    /**
+     * Returns the values of {@code mirror}'s attributes called {@code names}, in the same order, using the default of
+     * any that isn't given.  An attribute that doesn't exist has a null value, as do all of them if {@code mirror} is
+     * null.
+     * <p>
+     * Unlike calling {@link #annotationValue} for each name, this reads the mirror's values once.  Attributes are found
+     * through an index of each annotation type's attributes by name, built once per compilation.
+     */
+    public static AnnotationValue[] annotationValues(@Nullable AnnotationMirror mirror, Elements elements, String... names) {
+        AnnotationValue[] values = new AnnotationValue[names.length];
+        if (mirror == null) {
+            return values;
+        }
+        Map<String, ExecutableElement> attributes = modelCache(elements).attributes(mirror);
+        Map<? extends ExecutableElement, ? extends AnnotationValue> given = mirror.getElementValues();
+        for (int i = 0; i < names.length; i++) {
+            values[i] = value(attributes.get(names[i]), given);
         }
-        return null;
+        return values;
+    }
+
+    /**
+     * Returns a lazy query over the members {@code type} declares, such as
+     * {@code members(type).methods().withModifiers(PUBLIC).annotatedWith(Foo.class).first()}.
+     */
+    public static ElementQuery<Element> members(TypeElement type) {
+        return ElementQuery.of(type.getEnclosedElements());
     }
 
+    /**
+     * Returns the annotation types {@code type} is effectively annotated with: those on it, those it inherits from its
+     * superclasses through {@link java.lang.annotation.Inherited}, and every annotation type on those, and on those,
+     * and so on.  Each annotation type appears once.  The answer is remembered for the rest of the round.
+     */
+    public static Collection<TypeElement> getEffectiveAnnotations(TypeElement type, Elements elements) {
+        return modelCache(elements).effectiveAnnotations().effective(type).values();
+    }
+
+    /**
+     * Returns true if {@code annotation} is one of {@code type}'s {@link #getEffectiveAnnotations effective
+     * annotations}.
+     */
+    public static boolean isEffectivelyAnnotated(TypeElement type, Class<? extends Annotation> annotation, Elements elements) {
+        return modelCache(elements).effectiveAnnotations().effective(type).containsKey(annotation.getCanonicalName());
+    }
+
+    /**
+     * Indexes {@code types} by their {@link #getEffectiveAnnotations effective annotations}, to find every one
+     * effectively annotated with a given annotation.
+     */
+    public static EffectiveAnnotationIndex indexEffectiveAnnotations(Iterable<? extends TypeElement> types, Elements elements) {
+        return EffectiveAnnotationIndex.build(types, modelCache(elements).effectiveAnnotations());
+    }
+
+    /**
+     * Returns a view of {@code mirror} through the annotation's own interface, or null if {@code mirror} is null.  The
+     * view also implements {@link AnnotationView}, which reads {@code Class} attributes.
+     * <p>
+     * Each attribute is decoded the first time it is read, then kept.  Asking again for a view of the same mirror
+     * returns the same view for the rest of the round, so nothing is decoded twice.  {@link #newRound} forgets the
+     * views, so that a later round's mirrors aren't answered from an earlier round's values.
+     *
+     * @throws IllegalArgumentException if {@code mirror} isn't of {@code type}
+     */
+    public static <A extends Annotation> A view(@Nullable AnnotationMirror mirror, Class<A> type, Elements elements) {
+        if (mirror == null) {
+            return null;
+        }
+        ModelCache cache = modelCache(elements);
+        Annotation view = cache.views.get(mirror);
+        if (type.isInstance(view)) {
+            return type.cast(view);
+        }
+        TypeElement mirrorType = (TypeElement) mirror.getAnnotationType().asElement();
+        if (!mirrorType.getQualifiedName().contentEquals(type.getCanonicalName())) {
+            throw new IllegalArgumentException(mirror + " is not a " + type.getCanonicalName());
+        }
+        A result = AnnotationViewHandler.create(mirror, type, elements);
+        cache.views.put(mirror, result);
+        return result;
+    }
+
+    private static AnnotationValue value(@Nullable ExecutableElement attribute,
+                                         Map<? extends ExecutableElement, ? extends AnnotationValue> given) {
+        if (attribute == null) {
+            return null;
+        }
+        AnnotationValue value = given.get(attribute);
+        return value != null ? value : attribute.getDefaultValue();
+    }
 
 }
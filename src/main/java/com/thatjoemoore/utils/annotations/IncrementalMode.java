@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import java.util.Locale;
+
+/**
+ * How a processor takes part in Gradle's incremental annotation processing.
+ *
+ * @see IncrementalProcessor
+ * @see TrackedFiler
+ */
+public enum IncrementalMode {
+    /**
+     * Every generated file is derived from exactly one originating element.
+     */
+    ISOLATING,
+    /**
+     * Generated files may be derived from any number of originating elements.
+     */
+    AGGREGATING;
+
+    /**
+     * Returns the name Gradle uses for this mode in {@code META-INF/gradle/incremental.annotation.processors}.
+     */
+    public String gradleName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Writes {@code META-INF/gradle/incremental.annotation.processors} for every processor annotated with
+ * {@link IncrementalProcessor}, so Gradle knows which incremental mode each one supports.
+ * <p>
+ * This library doesn't register the registrar as a service, since it would then run in every build with
+ * annotation-utils on its processor path.  Builds that want it must name it themselves, with
+ * {@code -processor com.thatjoemoore.utils.annotations.IncrementalProcessorRegistrar} (alongside any other processors)
+ * or in their own {@code META-INF/services/javax.annotation.processing.Processor}.
+ */
+@SupportedAnnotationTypes("com.thatjoemoore.utils.annotations.IncrementalProcessor")
+public class IncrementalProcessorRegistrar extends AnalyzeAndWriteProcessor<SortedMap<String, String>> {
+
+    static final String RESOURCE = "META-INF/gradle/incremental.annotation.processors";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Not used, since {@link #getIncrementalAnalyzer()} always returns an analyzer.
+     */
+    @Override
+    protected Analyzer<SortedMap<String, String>> getAnalyzer() {
+        return null;
+    }
+
+    @Override
+    protected IncrementalAnalyzer<?, SortedMap<String, String>> getIncrementalAnalyzer() {
+        return new RegistrationAnalyzer();
+    }
+
+    @Override
+    protected Writer<SortedMap<String, String>> getWriter() {
+        return new RegistrationWriter();
+    }
+
+    /**
+     * Produces, for each root type, the registration lines of it and its nested types, keyed by qualified name.
+     */
+    private static final class RegistrationAnalyzer extends AbstractIncrementalAnalyzer<Map<String, String>, SortedMap<String, String>> {
+
+        @Override
+        public Map<String, String> analyze(TypeElement element) {
+            Map<String, String> found = new LinkedHashMap<>();
+            collect(element, found);
+            return found.isEmpty() ? null : found;
+        }
+
+        private void collect(TypeElement element, Map<String, String> found) {
+            IncrementalProcessor annotation = element.getAnnotation(IncrementalProcessor.class);
+            if (annotation != null) {
+                TypeMirror processor = elements().getTypeElement("javax.annotation.processing.Processor").asType();
+                if (types().isAssignable(element.asType(), processor)) {
+                    found.put(element.getQualifiedName().toString(),
+                            elements().getBinaryName(element) + "," + annotation.value().gradleName());
+                } else {
+                    logger().error("@IncrementalProcessor can only be used on annotation processors", element, IncrementalProcessor.class);
+                }
+            }
+            for (TypeElement each : ElementFilter.typesIn(element.getEnclosedElements())) {
+                collect(each, found);
+            }
+        }
+
+        @Override
+        public SortedMap<String, String> merge(Map<String, Map<String, String>> fragments, Set<String> added) {
+            SortedMap<String, String> lines = new TreeMap<>();
+            for (Map<String, String> each : fragments.values()) {
+                lines.putAll(each);
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * Writes the registration file once, in the final round, when every processor has been seen.
+     */
+    private static final class RegistrationWriter extends AbstractWriter<SortedMap<String, String>> {
+
+        @Override
+        public boolean write(SortedMap<String, String> lines) {
+            if (!roundEnv().processingOver() || lines.isEmpty()) {
+                return false;
+            }
+            List<Element> origins = new ArrayList<>(lines.size());
+            for (String each : lines.keySet()) {
+                TypeElement type = elements().getTypeElement(each);
+                if (type != null) {
+                    origins.add(type);
+                }
+            }
+            try {
+                FileObject file = filer().createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE,
+                        origins.toArray(new Element[origins.size()]));
+                try (java.io.Writer out = file.openWriter()) {
+                    for (String each : lines.values()) {
+                        out.write(each);
+                        out.write('\n');
+                    }
+                }
+            } catch (IOException ex) {
+                logger().fatal("Unable to write " + RESOURCE + ": " + ex.getMessage());
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.util.BitSet;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A minimal streaming JSON writer, used for the reports processors write through the Filer.  It puts commas between
+ * members and escapes strings, but otherwise trusts its caller to nest objects and arrays correctly.
+ */
+@ParametersAreNonnullByDefault
+final class Json {
+    private final Appendable out;
+    /**
+     * Whether the object or array at each depth already has a member, and so needs a comma before the next one.
+     */
+    private final BitSet hasMembers = new BitSet();
+    private int depth;
+    private boolean afterName;
+
+    Json(Appendable out) {
+        this.out = requireNonNull(out, "out cannot be null");
+    }
+
+    Json beginObject() throws IOException {
+        return open('{');
+    }
+
+    Json endObject() throws IOException {
+        return close('}');
+    }
+
+    Json beginArray() throws IOException {
+        return open('[');
+    }
+
+    Json endArray() throws IOException {
+        return close(']');
+    }
+
+    Json name(String name) throws IOException {
+        separate();
+        quote(name, out);
+        out.append(':');
+        afterName = true;
+        return this;
+    }
+
+    Json value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.append("null");
+        } else {
+            quote(value, out);
+        }
+        return this;
+    }
+
+    Json value(long value) throws IOException {
+        separate();
+        out.append(Long.toString(value));
+        return this;
+    }
+
+    Json value(boolean value) throws IOException {
+        separate();
+        out.append(value ? "true" : "false");
+        return this;
+    }
+
+    private Json open(char bracket) throws IOException {
+        separate();
+        out.append(bracket);
+        depth++;
+        hasMembers.clear(depth);
+        return this;
+    }
+
+    private Json close(char bracket) throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("Nothing to close with " + bracket);
+        }
+        depth--;
+        out.append(bracket);
+        return this;
+    }
+
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (hasMembers.get(depth)) {
+            out.append(',');
+        }
+        hasMembers.set(depth);
+    }
+
+    /**
+     * Writes {@code value} as a quoted JSON string.
+     */
+    static void quote(CharSequence value, Appendable out) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -17,6 +17,8 @@
 package com.thatjoemoore.utils.annotations;
 
 import com.google.auto.common.MoreElements;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
 
 import javax.annotation.Nonnull;
 import javax.annotation.processing.Messager;
@@ -25,17 +27,393 @@ import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
 import javax.tools.Diagnostic;
 import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Created by adm.jmooreoa on 12/30/14.
+ * <p>
+ * A buffered logger holds its diagnostics until {@link #flush()} is called, then prints each distinct diagnostic once,
+ * in the order it was first logged.  {@link AbstractProcessorExt} flushes at the end of every round, and buffers when
+ * {@link ProcessorOptions#LOG_BUFFERED} is set.
+ * <p>
+ * Messages below the logger's threshold ({@link ProcessorOptions#LOG_LEVEL}) are dropped.  The {@code xxxf} and
+ * {@code xxxLazy} methods don't even build the message in that case, so logging at a disabled level costs next to
+ * nothing.  Everything at an enabled level can also be streamed to a JSON Lines or SARIF report, with
+ * {@link ProcessorOptions#LOG_REPORT}.
+ * <p>
+ * An {@link #setAggregating aggregating} logger records fatal messages without throwing, so that one build reports
+ * every fatal error instead of only the first.  {@link AbstractProcessorExt} then aborts the round once, at the end.
  */
 public class Logger {
     private final Messager messager;
+    /**
+     * Diagnostics waiting to be flushed, mapped to the number of times each was logged.  Null if this logger isn't
+     * buffered.
+     */
+    private final Map<Buffered, Integer> buffer;
+    /**
+     * The mirrors already looked up for each element this round, by annotation type.  Elements are compared by
+     * identity, which is what the compiler's own elements do anyway.
+     */
+    private final Map<Element, Map<Class<? extends Annotation>, Optional<AnnotationMirror>>> mirrors = new IdentityHashMap<>();
+
+    /**
+     * The least severe level that is logged.
+     */
+    private final Level threshold;
+
+    // Limits, and what has been counted against them this round.  A limit of 0 means there is none.
+    private int maxPerLevel;
+    private int maxPerElement;
+    private int maxPerAnnotationType;
+    private final int[] perLevel = new int[Level.values().length];
+    private final Map<Element, int[]> perElement = new IdentityHashMap<>();
+    private final Map<Element, int[]> perAnnotationType = new IdentityHashMap<>();
+    private final int[] suppressed = new int[Level.values().length];
+    /**
+     * Where every logged message is also recorded, or null if there's no report.
+     */
+    private DiagnosticReport report;
+    /**
+     * Whether fatal messages are only recorded, rather than thrown.
+     */
+    private boolean aggregating;
+    /**
+     * How many fatal messages have been logged this round.
+     */
+    private int fatalCount;
 
     public Logger(@Nonnull Messager messager) {
+        this(messager, false);
+    }
+
+    public Logger(@Nonnull Messager messager, boolean buffered) {
+        this(messager, buffered, Level.OTHER);
+    }
+
+    /**
+     * @param threshold the least severe level to log.  Errors are always logged, even if this is {@link Level#FATAL},
+     *                  since dropping them would let a broken build pass.
+     */
+    public Logger(@Nonnull Messager messager, boolean buffered, @Nonnull Level threshold) {
         this.messager = requireNonNull(messager, "messager cannot be null");
+        this.buffer = buffered ? new LinkedHashMap<Buffered, Integer>() : null;
+        this.threshold = requireNonNull(threshold, "threshold cannot be null").compareTo(Level.ERROR) < 0 ? Level.ERROR : threshold;
+    }
+
+    public boolean isBuffered() {
+        return buffer != null;
+    }
+
+    public Level getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns true if messages at {@code level} are logged.  Check this before building an expensive message, or use
+     * the {@code xxxf} and {@code xxxLazy} methods, which check it for you.
+     */
+    public boolean isEnabled(@Nonnull Level level) {
+        return level.compareTo(threshold) <= 0;
+    }
+
+    /**
+     * The levels messages are logged at, from most to least severe.
+     */
+    public enum Level {
+        FATAL(Diagnostic.Kind.ERROR),
+        ERROR(Diagnostic.Kind.ERROR),
+        MANDATORY_WARNING(Diagnostic.Kind.MANDATORY_WARNING),
+        WARNING(Diagnostic.Kind.WARNING),
+        NOTE(Diagnostic.Kind.NOTE),
+        OTHER(Diagnostic.Kind.OTHER);
+
+        private final Diagnostic.Kind kind;
+
+        Level(Diagnostic.Kind kind) {
+            this.kind = kind;
+        }
+
+        /**
+         * Returns the kind of diagnostic messages at this level are printed as.
+         */
+        public Diagnostic.Kind getKind() {
+            return kind;
+        }
+    }
+
+    /**
+     * Prints every buffered diagnostic, once each, in the order they were first logged.  If any were logged more than
+     * once, a note then says how many repeats were dropped.  Does nothing if this logger isn't buffered.
+     */
+    public void flush() {
+        if (buffer == null || buffer.isEmpty()) {
+            return;
+        }
+        Map<Diagnostic.Kind, Integer> repeats = new EnumMap<>(Diagnostic.Kind.class);
+        int total = 0;
+        for (Map.Entry<Buffered, Integer> each : buffer.entrySet()) {
+            Buffered diagnostic = each.getKey();
+            messager.printMessage(diagnostic.kind, diagnostic.message, diagnostic.elem, diagnostic.annotation, diagnostic.value);
+            int repeated = each.getValue() - 1;
+            if (repeated > 0) {
+                Integer old = repeats.get(diagnostic.kind);
+                repeats.put(diagnostic.kind, old == null ? repeated : old + repeated);
+                total += repeated;
+            }
+        }
+        buffer.clear();
+
+        if (total > 0) {
+            messager.printMessage(Diagnostic.Kind.NOTE, summary(total + " duplicate diagnostics were not repeated", repeats));
+        }
+    }
+
+    /**
+     * Flushes, says how many messages the limits suppressed this round, if any, and forgets the annotation mirrors
+     * looked up this round.  Elements from one round shouldn't be used in the next, so {@link AbstractProcessorExt}
+     * calls this at the end of every round.
+     */
+    public void endRound() {
+        flush();
+        mirrors.clear();
+        if (report != null) {
+            report.flush();
+        }
+
+        Map<Level, Integer> byLevel = new EnumMap<>(Level.class);
+        int total = 0;
+        for (Level each : Level.values()) {
+            int count = suppressed[each.ordinal()];
+            if (count > 0) {
+                byLevel.put(each, count);
+                total += count;
+            }
+        }
+        if (total > 0) {
+            messager.printMessage(Diagnostic.Kind.NOTE, summary(total + " more diagnostics were suppressed by the logging limits", byLevel));
+        }
+        Arrays.fill(suppressed, 0);
+        Arrays.fill(perLevel, 0);
+        fatalCount = 0;
+        perElement.clear();
+        perAnnotationType.clear();
+    }
+
+    /**
+     * If true, fatal messages are logged and counted, but don't throw, so the caller goes on and can report more
+     * errors.  Code that fatal would have stopped must then cope with whatever was wrong, or check
+     * {@link #getFatalCount()}.  {@link AbstractProcessorExt} sets this from {@link ProcessorOptions#LOG_AGGREGATE}.
+     */
+    public void setAggregating(boolean aggregating) {
+        this.aggregating = aggregating;
+    }
+
+    public boolean isAggregating() {
+        return aggregating;
+    }
+
+    /**
+     * Returns how many fatal messages have been logged this round.
+     */
+    public int getFatalCount() {
+        return fatalCount;
+    }
+
+    /**
+     * Aborts the round if any fatal message has been logged in it, by throwing an AbortProcessingException.  The
+     * messages have already been logged, so the exception isn't printed again.  Does nothing if none has; in
+     * particular, it never throws unless this logger is aggregating, since fatal would have thrown already.
+     */
+    public void abortIfFatal() {
+        if (fatalCount > 0) {
+            throw new AbstractProcessorExt.AbortProcessingException(
+                    "Aborting after " + fatalCount + (fatalCount == 1 ? " fatal error" : " fatal errors"), null, null, null, true);
+        }
+    }
+
+    /**
+     * Records every message at an enabled level in {@code report}, including those that buffering or the limits keep
+     * from being printed.
+     */
+    void setReport(DiagnosticReport report) {
+        this.report = report;
+    }
+
+    /**
+     * Limits how many messages are logged each round.  Once a limit is reached, further messages it covers are
+     * dropped, and {@link #endRound()} notes how many were.  Fatal messages are never dropped.  Repeats of a buffered
+     * message don't count towards the limits.
+     *
+     * @param maxPerLevel          most messages to log at each level, or 0 for no limit
+     * @param maxPerElement        most messages to log about any one element, or 0 for no limit
+     * @param maxPerAnnotationType most messages to log about annotations of any one type, or 0 for no limit
+     */
+    public void setLimits(int maxPerLevel, int maxPerElement, int maxPerAnnotationType) {
+        if (maxPerLevel < 0 || maxPerElement < 0 || maxPerAnnotationType < 0) {
+            throw new IllegalArgumentException("Limits cannot be negative");
+        }
+        this.maxPerLevel = maxPerLevel;
+        this.maxPerElement = maxPerElement;
+        this.maxPerAnnotationType = maxPerAnnotationType;
+    }
+
+    private static String summary(String headline, Map<? extends Enum<?>, Integer> counts) {
+        StringBuilder summary = new StringBuilder(headline).append(" (");
+        String separator = "";
+        for (Map.Entry<? extends Enum<?>, Integer> each : counts.entrySet()) {
+            summary.append(separator).append(each.getValue()).append(' ').append(each.getKey().name().toLowerCase(Locale.ROOT));
+            separator = ", ";
+        }
+        return summary.append(')').toString();
+    }
+
+    /**
+     * Counts a message against the limits, returning false, and counting it as suppressed instead, if any of them has
+     * been reached.
+     */
+    private boolean withinLimits(Level level, Element elem, AnnotationMirror annotation) {
+        if (level == Level.FATAL) {
+            return true;
+        }
+        if (maxPerLevel > 0 && perLevel[level.ordinal()] >= maxPerLevel) {
+            suppressed[level.ordinal()]++;
+            return false;
+        }
+        int[] elemCount = null;
+        if (maxPerElement > 0 && elem != null) {
+            elemCount = counter(perElement, elem);
+            if (elemCount[0] >= maxPerElement) {
+                suppressed[level.ordinal()]++;
+                return false;
+            }
+        }
+        int[] annotationCount = null;
+        if (maxPerAnnotationType > 0 && annotation != null) {
+            annotationCount = counter(perAnnotationType, annotation.getAnnotationType().asElement());
+            if (annotationCount[0] >= maxPerAnnotationType) {
+                suppressed[level.ordinal()]++;
+                return false;
+            }
+        }
+        perLevel[level.ordinal()]++;
+        if (elemCount != null) {
+            elemCount[0]++;
+        }
+        if (annotationCount != null) {
+            annotationCount[0]++;
+        }
+        return true;
+    }
+
+    private static int[] counter(Map<Element, int[]> counters, Element key) {
+        int[] counter = counters.get(key);
+        if (counter == null) {
+            counter = new int[1];
+            counters.put(key, counter);
+        }
+        return counter;
+    }
+
+    /**
+     * Finds the mirror of {@code annotation} on {@code elem}, remembering it for the rest of the round.  Doesn't bother
+     * if {@code level} is disabled, since the message won't be logged anyway.
+     */
+    AnnotationMirror mirror(Level level, Element elem, Class<? extends Annotation> annotation) {
+        if (elem == null || annotation == null || level.compareTo(threshold) > 0) {
+            return null;
+        }
+        Map<Class<? extends Annotation>, Optional<AnnotationMirror>> byType = mirrors.get(elem);
+        if (byType == null) {
+            byType = new HashMap<>(4);
+            mirrors.put(elem, byType);
+        }
+        Optional<AnnotationMirror> mirror = byType.get(annotation);
+        if (mirror == null) {
+            mirror = MoreElements.getAnnotationMirror(elem, annotation);
+            byType.put(annotation, mirror);
+        }
+        return mirror.orNull();
+    }
+
+    /**
+     * Every message about an annotation type goes through here, to have its mirror looked up and be emitted.
+     */
+    void emit(Level level, CharSequence message, Element elem, Class<? extends Annotation> annotation) {
+        emit(level, message, elem, mirror(level, elem, annotation), null);
+    }
+
+    /**
+     * Every message goes through here, to be printed now or buffered.
+     */
+    void emit(Level level, CharSequence message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
+        if (level == Level.FATAL) {
+            fatalCount++;
+        } else if (level.compareTo(threshold) > 0) {
+            return;
+        }
+        if (report != null) {
+            report.record(level, message, elem, annotation, value);
+        }
+        Diagnostic.Kind kind = level.kind;
+        if (buffer == null) {
+            if (withinLimits(level, elem, annotation)) {
+                messager.printMessage(kind, message, elem, annotation, value);
+            }
+            return;
+        }
+        Buffered key = new Buffered(kind, message.toString(), elem, annotation, value);
+        Integer count = buffer.get(key);
+        if (count != null) {
+            buffer.put(key, count + 1);
+        } else if (withinLimits(level, elem, annotation)) {
+            buffer.put(key, 1);
+        }
+    }
+
+    /**
+     * A diagnostic waiting to be flushed.  Two are the same if everything about them is.
+     */
+    private static final class Buffered {
+        private final Diagnostic.Kind kind;
+        private final String message;
+        private final Element elem;
+        private final AnnotationMirror annotation;
+        private final AnnotationValue value;
+
+        private Buffered(Diagnostic.Kind kind, String message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
+            this.kind = kind;
+            this.message = message;
+            this.elem = elem;
+            this.annotation = annotation;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Buffered)) return false;
+            Buffered that = (Buffered) o;
+            return kind == that.kind
+                    && message.equals(that.message)
+                    && Objects.equals(elem, that.elem)
+                    && Objects.equals(annotation, that.annotation)
+                    && Objects.equals(value, that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, message, elem, annotation, value);
+        }
     }
     
     //================================
@@ -43,7 +421,7 @@ public class Logger {
     //================================
 
     /**
-     * Log a message at the fatal level, then throws an AbortProcessingException.
+     * Log a message at the fatal level, then throws an AbortProcessingException unless this logger is aggregating.
      *
      * @param message message text
      */
@@ -52,7 +430,7 @@ public class Logger {
     }
 
     /**
-     * Log a message at the fatal level, then throws an AbortProcessingException.
+     * Log a message at the fatal level, then throws an AbortProcessingException unless this logger is aggregating.
      *
      * @param message message text
      * @param elem    element this message is about
@@ -62,31 +440,31 @@ public class Logger {
     }
 
     /**
-     * Log a message at the fatal level, then throws an AbortProcessingException.
+     * Log a message at the fatal level, then throws an AbortProcessingException unless this logger is aggregating.
      *
      * @param message    message text
      * @param elem       element this message is about
      * @param annotation annotation type (on the element) this message is about
      */
     public void fatal(@Nonnull CharSequence message, Element elem, Class<? extends Annotation> annotation) {
-        fatal(message, elem,
-                annotation != null && elem != null ? MoreElements.getAnnotationMirror(elem, annotation).orNull() : null, null);
+        emit(Level.FATAL, requireNonNull(message, "message cannot be null"), elem, annotation);
+        // Already looked up by emit, except off the owner thread of a ConcurrentLogger, where it is resolved later
+        abortUnlessAggregating(message, elem, mirror(Level.FATAL, elem, annotation), null);
     }
 
     /**
-     * Log a message at the fatal level, then throws an AbortProcessingException.
+     * Log a message at the fatal level, then throws an AbortProcessingException unless this logger is aggregating.
      *
      * @param message    message text
      * @param elem       element this message is about
      * @param annotation annotation (on the element) this message is about
      */
     public void fatal(@Nonnull CharSequence message, Element elem, Annotation annotation) {
-        fatal(message, elem,
-                elem != null && annotation != null ? MoreElements.getAnnotationMirror(elem, annotation.getClass()).orNull() : null, null);
+        fatal(message, elem, annotation != null ? annotation.annotationType() : null);
     }
 
     /**
-     * Log a message at the fatal level, then throws an AbortProcessingException.
+     * Log a message at the fatal level, then throws an AbortProcessingException unless this logger is aggregating.
      *
      * @param message    message text
      * @param elem       element this message is about
@@ -97,7 +475,7 @@ public class Logger {
     }
 
     /**
-     * Log a message at the fatal level, then throws an AbortProcessingException.
+     * Log a message at the fatal level, then throws an AbortProcessingException unless this logger is aggregating.
      *
      * @param message    message text
      * @param elem       element this message is about
@@ -105,8 +483,70 @@ public class Logger {
      * @param value      annotation value this message is about
      */
     public void fatal(@Nonnull CharSequence message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
-        messager.printMessage(Diagnostic.Kind.ERROR, requireNonNull(message, "message cannot be null"), elem, annotation, value);
-        throw new AbstractProcessorExt.AbortProcessingException(message.toString(), elem, annotation, value);
+        emit(Level.FATAL, requireNonNull(message, "message cannot be null"), elem, annotation, value);
+        abortUnlessAggregating(message, elem, annotation, value);
+    }
+
+    /**
+     * Every fatal message goes through here once it has been logged, to throw the exception that ends the round.
+     */
+    void abortUnlessAggregating(CharSequence message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
+        if (!aggregating) {
+            throw new AbstractProcessorExt.AbortProcessingException(message.toString(), elem, annotation, value, true);
+        }
+    }
+
+    /**
+     * Log a message at the fatal level, then throws an AbortProcessingException unless this logger is aggregating.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg    format argument
+     */
+    public void fatalf(Element elem, @Nonnull String format, Object arg) {
+        if (isEnabled(Level.FATAL)) {
+            fatal(String.format(requireNonNull(format, "format cannot be null"), arg), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the fatal level, then throws an AbortProcessingException unless this logger is aggregating.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg1   first format argument
+     * @param arg2   second format argument
+     */
+    public void fatalf(Element elem, @Nonnull String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.FATAL)) {
+            fatal(String.format(requireNonNull(format, "format cannot be null"), arg1, arg2), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the fatal level, then throws an AbortProcessingException unless this logger is aggregating.  Prefer the
+     * fixed-argument overloads where they fit, since this one allocates an argument array.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param args   format arguments
+     */
+    public void fatalf(Element elem, @Nonnull String format, Object... args) {
+        if (isEnabled(Level.FATAL)) {
+            fatal(String.format(requireNonNull(format, "format cannot be null"), args), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the fatal level, then throws an AbortProcessingException unless this logger is aggregating.
+     *
+     * @param elem    element this message is about
+     * @param message supplies the message text
+     */
+    public void fatalLazy(Element elem, @Nonnull Supplier<? extends CharSequence> message) {
+        if (isEnabled(Level.FATAL)) {
+            fatal(requireNonNull(message, "message cannot be null").get(), elem, null, null);
+        }
     }
 
     //================================
@@ -140,8 +580,7 @@ public class Logger {
      * @param annotation annotation type (on the element) this message is about
      */
     public void error(@Nonnull CharSequence message, Element elem, Class<? extends Annotation> annotation) {
-        error(message, elem,
-                annotation != null && elem != null ? MoreElements.getAnnotationMirror(elem, annotation).orNull() : null, null);
+        emit(Level.ERROR, requireNonNull(message, "message cannot be null"), elem, annotation);
     }
 
     /**
@@ -152,8 +591,7 @@ public class Logger {
      * @param annotation annotation (on the element) this message is about
      */
     public void error(@Nonnull CharSequence message, Element elem, Annotation annotation) {
-        error(message, elem,
-                elem != null && annotation != null ? MoreElements.getAnnotationMirror(elem, annotation.getClass()).orNull() : null, null);
+        emit(Level.ERROR, requireNonNull(message, "message cannot be null"), elem, annotation != null ? annotation.annotationType() : null);
     }
 
     /**
@@ -176,9 +614,62 @@ public class Logger {
      * @param value      annotation value this message is about
      */
     public void error(@Nonnull CharSequence message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
-        messager.printMessage(Diagnostic.Kind.ERROR, requireNonNull(message, "message cannot be null"), elem, annotation, value);
+        emit(Level.ERROR, requireNonNull(message, "message cannot be null"), elem, annotation, value);
+    }
+
+    /**
+     * Log a message at the error level, formatting it only if the level is enabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg    format argument
+     */
+    public void errorf(Element elem, @Nonnull String format, Object arg) {
+        if (isEnabled(Level.ERROR)) {
+            error(String.format(requireNonNull(format, "format cannot be null"), arg), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the error level, formatting it only if the level is enabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg1   first format argument
+     * @param arg2   second format argument
+     */
+    public void errorf(Element elem, @Nonnull String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.ERROR)) {
+            error(String.format(requireNonNull(format, "format cannot be null"), arg1, arg2), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the error level, formatting it only if the level is enabled.  Prefer the
+     * fixed-argument overloads where they fit, since this one allocates an argument array even when the level is
+     * disabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param args   format arguments
+     */
+    public void errorf(Element elem, @Nonnull String format, Object... args) {
+        if (isEnabled(Level.ERROR)) {
+            error(String.format(requireNonNull(format, "format cannot be null"), args), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the error level, getting it only if the level is enabled.
+     *
+     * @param elem    element this message is about
+     * @param message supplies the message text
+     */
+    public void errorLazy(Element elem, @Nonnull Supplier<? extends CharSequence> message) {
+        if (isEnabled(Level.ERROR)) {
+            error(requireNonNull(message, "message cannot be null").get(), elem, null, null);
+        }
     }
-    
 
     //================================
     // warning level
@@ -211,8 +702,7 @@ public class Logger {
      * @param annotation annotation type (on the element) this message is about
      */
     public void warning(@Nonnull CharSequence message, Element elem, Class<? extends Annotation> annotation) {
-        warning(message, elem,
-                annotation != null && elem != null ? MoreElements.getAnnotationMirror(elem, annotation).orNull() : null, null);
+        emit(Level.WARNING, requireNonNull(message, "message cannot be null"), elem, annotation);
     }
 
     /**
@@ -223,8 +713,7 @@ public class Logger {
      * @param annotation annotation (on the element) this message is about
      */
     public void warning(@Nonnull CharSequence message, Element elem, Annotation annotation) {
-        warning(message, elem,
-                elem != null && annotation != null ? MoreElements.getAnnotationMirror(elem, annotation.getClass()).orNull() : null, null);
+        emit(Level.WARNING, requireNonNull(message, "message cannot be null"), elem, annotation != null ? annotation.annotationType() : null);
     }
 
     /**
@@ -247,7 +736,61 @@ public class Logger {
      * @param value      annotation value this message is about
      */
     public void warning(@Nonnull CharSequence message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
-        messager.printMessage(Diagnostic.Kind.WARNING, requireNonNull(message, "message cannot be null"), elem, annotation, value);
+        emit(Level.WARNING, requireNonNull(message, "message cannot be null"), elem, annotation, value);
+    }
+
+    /**
+     * Log a message at the warning level, formatting it only if the level is enabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg    format argument
+     */
+    public void warningf(Element elem, @Nonnull String format, Object arg) {
+        if (isEnabled(Level.WARNING)) {
+            warning(String.format(requireNonNull(format, "format cannot be null"), arg), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the warning level, formatting it only if the level is enabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg1   first format argument
+     * @param arg2   second format argument
+     */
+    public void warningf(Element elem, @Nonnull String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.WARNING)) {
+            warning(String.format(requireNonNull(format, "format cannot be null"), arg1, arg2), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the warning level, formatting it only if the level is enabled.  Prefer the
+     * fixed-argument overloads where they fit, since this one allocates an argument array even when the level is
+     * disabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param args   format arguments
+     */
+    public void warningf(Element elem, @Nonnull String format, Object... args) {
+        if (isEnabled(Level.WARNING)) {
+            warning(String.format(requireNonNull(format, "format cannot be null"), args), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the warning level, getting it only if the level is enabled.
+     *
+     * @param elem    element this message is about
+     * @param message supplies the message text
+     */
+    public void warningLazy(Element elem, @Nonnull Supplier<? extends CharSequence> message) {
+        if (isEnabled(Level.WARNING)) {
+            warning(requireNonNull(message, "message cannot be null").get(), elem, null, null);
+        }
     }
 
     //================================
@@ -281,8 +824,7 @@ public class Logger {
      * @param annotation annotation type (on the element) this message is about
      */
     public void mandatory(@Nonnull CharSequence message, Element elem, Class<? extends Annotation> annotation) {
-        mandatory(message, elem,
-                annotation != null && elem != null ? MoreElements.getAnnotationMirror(elem, annotation).orNull() : null, null);
+        emit(Level.MANDATORY_WARNING, requireNonNull(message, "message cannot be null"), elem, annotation);
     }
 
     /**
@@ -293,8 +835,7 @@ public class Logger {
      * @param annotation annotation (on the element) this message is about
      */
     public void mandatory(@Nonnull CharSequence message, Element elem, Annotation annotation) {
-        mandatory(message, elem,
-                elem != null && annotation != null ? MoreElements.getAnnotationMirror(elem, annotation.getClass()).orNull() : null, null);
+        emit(Level.MANDATORY_WARNING, requireNonNull(message, "message cannot be null"), elem, annotation != null ? annotation.annotationType() : null);
     }
 
     /**
@@ -317,7 +858,61 @@ public class Logger {
      * @param value      annotation value this message is about
      */
     public void mandatory(@Nonnull CharSequence message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
-        messager.printMessage(Diagnostic.Kind.MANDATORY_WARNING, requireNonNull(message, "message cannot be null"), elem, annotation, value);
+        emit(Level.MANDATORY_WARNING, requireNonNull(message, "message cannot be null"), elem, annotation, value);
+    }
+
+    /**
+     * Log a message at the mandatory warning level, formatting it only if the level is enabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg    format argument
+     */
+    public void mandatoryf(Element elem, @Nonnull String format, Object arg) {
+        if (isEnabled(Level.MANDATORY_WARNING)) {
+            mandatory(String.format(requireNonNull(format, "format cannot be null"), arg), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the mandatory warning level, formatting it only if the level is enabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg1   first format argument
+     * @param arg2   second format argument
+     */
+    public void mandatoryf(Element elem, @Nonnull String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.MANDATORY_WARNING)) {
+            mandatory(String.format(requireNonNull(format, "format cannot be null"), arg1, arg2), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the mandatory warning level, formatting it only if the level is enabled.  Prefer the
+     * fixed-argument overloads where they fit, since this one allocates an argument array even when the level is
+     * disabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param args   format arguments
+     */
+    public void mandatoryf(Element elem, @Nonnull String format, Object... args) {
+        if (isEnabled(Level.MANDATORY_WARNING)) {
+            mandatory(String.format(requireNonNull(format, "format cannot be null"), args), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the mandatory warning level, getting it only if the level is enabled.
+     *
+     * @param elem    element this message is about
+     * @param message supplies the message text
+     */
+    public void mandatoryLazy(Element elem, @Nonnull Supplier<? extends CharSequence> message) {
+        if (isEnabled(Level.MANDATORY_WARNING)) {
+            mandatory(requireNonNull(message, "message cannot be null").get(), elem, null, null);
+        }
     }
 
     //================================
@@ -351,8 +946,7 @@ public class Logger {
      * @param annotation annotation type (on the element) this message is about
      */
     public void note(@Nonnull CharSequence message, Element elem, Class<? extends Annotation> annotation) {
-        note(message, elem,
-                annotation != null && elem != null ? MoreElements.getAnnotationMirror(elem, annotation).orNull() : null, null);
+        emit(Level.NOTE, requireNonNull(message, "message cannot be null"), elem, annotation);
     }
 
     /**
@@ -363,8 +957,7 @@ public class Logger {
      * @param annotation annotation (on the element) this message is about
      */
     public void note(@Nonnull CharSequence message, Element elem, Annotation annotation) {
-        note(message, elem,
-                elem != null && annotation != null ? MoreElements.getAnnotationMirror(elem, annotation.getClass()).orNull() : null, null);
+        emit(Level.NOTE, requireNonNull(message, "message cannot be null"), elem, annotation != null ? annotation.annotationType() : null);
     }
 
     /**
@@ -387,7 +980,61 @@ public class Logger {
      * @param value      annotation value this message is about
      */
     public void note(@Nonnull CharSequence message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
-        messager.printMessage(Diagnostic.Kind.NOTE, requireNonNull(message, "message cannot be null"), elem, annotation, value);
+        emit(Level.NOTE, requireNonNull(message, "message cannot be null"), elem, annotation, value);
+    }
+
+    /**
+     * Log a message at the note level, formatting it only if the level is enabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg    format argument
+     */
+    public void notef(Element elem, @Nonnull String format, Object arg) {
+        if (isEnabled(Level.NOTE)) {
+            note(String.format(requireNonNull(format, "format cannot be null"), arg), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the note level, formatting it only if the level is enabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg1   first format argument
+     * @param arg2   second format argument
+     */
+    public void notef(Element elem, @Nonnull String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.NOTE)) {
+            note(String.format(requireNonNull(format, "format cannot be null"), arg1, arg2), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the note level, formatting it only if the level is enabled.  Prefer the
+     * fixed-argument overloads where they fit, since this one allocates an argument array even when the level is
+     * disabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param args   format arguments
+     */
+    public void notef(Element elem, @Nonnull String format, Object... args) {
+        if (isEnabled(Level.NOTE)) {
+            note(String.format(requireNonNull(format, "format cannot be null"), args), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the note level, getting it only if the level is enabled.
+     *
+     * @param elem    element this message is about
+     * @param message supplies the message text
+     */
+    public void noteLazy(Element elem, @Nonnull Supplier<? extends CharSequence> message) {
+        if (isEnabled(Level.NOTE)) {
+            note(requireNonNull(message, "message cannot be null").get(), elem, null, null);
+        }
     }
 
     //================================
@@ -421,8 +1068,7 @@ public class Logger {
      * @param annotation annotation type (on the element) this message is about
      */
     public void other(@Nonnull CharSequence message, Element elem, Class<? extends Annotation> annotation) {
-        other(message, elem,
-                annotation != null && elem != null ? MoreElements.getAnnotationMirror(elem, annotation).orNull() : null, null);
+        emit(Level.OTHER, requireNonNull(message, "message cannot be null"), elem, annotation);
     }
 
     /**
@@ -433,8 +1079,7 @@ public class Logger {
      * @param annotation annotation (on the element) this message is about
      */
     public void other(@Nonnull CharSequence message, Element elem, Annotation annotation) {
-        other(message, elem,
-                elem != null && annotation != null ? MoreElements.getAnnotationMirror(elem, annotation.getClass()).orNull() : null, null);
+        emit(Level.OTHER, requireNonNull(message, "message cannot be null"), elem, annotation != null ? annotation.annotationType() : null);
     }
 
     /**
@@ -457,8 +1102,61 @@ public class Logger {
      * @param value      annotation value this message is about
      */
     public void other(@Nonnull CharSequence message, Element elem, AnnotationMirror annotation, AnnotationValue value) {
-        messager.printMessage(Diagnostic.Kind.OTHER, requireNonNull(message, "message cannot be null"), elem, annotation, value);
+        emit(Level.OTHER, requireNonNull(message, "message cannot be null"), elem, annotation, value);
+    }
+
+    /**
+     * Log a message at the other level, formatting it only if the level is enabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg    format argument
+     */
+    public void otherf(Element elem, @Nonnull String format, Object arg) {
+        if (isEnabled(Level.OTHER)) {
+            other(String.format(requireNonNull(format, "format cannot be null"), arg), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the other level, formatting it only if the level is enabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param arg1   first format argument
+     * @param arg2   second format argument
+     */
+    public void otherf(Element elem, @Nonnull String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.OTHER)) {
+            other(String.format(requireNonNull(format, "format cannot be null"), arg1, arg2), elem, null, null);
+        }
+    }
+
+    /**
+     * Log a message at the other level, formatting it only if the level is enabled.  Prefer the
+     * fixed-argument overloads where they fit, since this one allocates an argument array even when the level is
+     * disabled.
+     *
+     * @param elem   element this message is about
+     * @param format {@link String#format(String, Object...)} format of the message
+     * @param args   format arguments
+     */
+    public void otherf(Element elem, @Nonnull String format, Object... args) {
+        if (isEnabled(Level.OTHER)) {
+            other(String.format(requireNonNull(format, "format cannot be null"), args), elem, null, null);
+        }
     }
 
+    /**
+     * Log a message at the other level, getting it only if the level is enabled.
+     *
+     * @param elem    element this message is about
+     * @param message supplies the message text
+     */
+    public void otherLazy(Element elem, @Nonnull Supplier<? extends CharSequence> message) {
+        if (isEnabled(Level.OTHER)) {
+            other(requireNonNull(message, "message cannot be null").get(), elem, null, null);
+        }
+    }
 
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable, thread-safe copy of a field, method, constructor or enum constant.  Types are stored as their
+ * {@code toString()} renderings.
+ *
+ * @see TypeSnapshot
+ */
+@ParametersAreNonnullByDefault
+public final class MemberSnapshot implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    private final String name;
+    private final ElementKind kind;
+    private final ImmutableSet<Modifier> modifiers;
+    private final ImmutableList<String> typeParameters;
+    private final String type;
+    private final ImmutableList<String> parameterNames;
+    private final ImmutableList<String> parameterTypes;
+    private final boolean varArgs;
+    private final ImmutableList<String> thrownTypes;
+    private final Object constantValue;
+    private final ImmutableList<AnnotationSnapshot> annotations;
+
+    public MemberSnapshot(String name, ElementKind kind, Set<Modifier> modifiers, List<String> typeParameters,
+                          String type, List<String> parameterNames, List<String> parameterTypes, boolean varArgs,
+                          List<String> thrownTypes, @Nullable Object constantValue, List<AnnotationSnapshot> annotations) {
+        this.name = requireNonNull(name, "name cannot be null");
+        this.kind = requireNonNull(kind, "kind cannot be null");
+        this.modifiers = Sets.immutableEnumSet(modifiers);
+        this.typeParameters = ImmutableList.copyOf(typeParameters);
+        this.type = requireNonNull(type, "type cannot be null");
+        this.parameterNames = ImmutableList.copyOf(parameterNames);
+        this.parameterTypes = ImmutableList.copyOf(parameterTypes);
+        this.varArgs = varArgs;
+        this.thrownTypes = ImmutableList.copyOf(thrownTypes);
+        this.constantValue = constantValue;
+        this.annotations = ImmutableList.copyOf(annotations);
+    }
+
+    /**
+     * Copies a member element.  Must be called on the processor thread.
+     */
+    public static MemberSnapshot of(Element member, Elements elements) {
+        ImmutableList.Builder<String> parameterNames = ImmutableList.builder();
+        ImmutableList.Builder<String> parameterTypes = ImmutableList.builder();
+        ImmutableList.Builder<String> thrownTypes = ImmutableList.builder();
+        List<String> typeParameters = ImmutableList.of();
+        boolean varArgs = false;
+        String type;
+        Object constant = null;
+        if (member instanceof ExecutableElement) {
+            ExecutableElement method = (ExecutableElement) member;
+            typeParameters = TypeSnapshot.typeParameters(method.getTypeParameters());
+            type = method.getReturnType().toString();
+            for (VariableElement each : method.getParameters()) {
+                parameterNames.add(each.getSimpleName().toString());
+                parameterTypes.add(each.asType().toString());
+            }
+            varArgs = method.isVarArgs();
+            for (TypeMirror each : method.getThrownTypes()) {
+                thrownTypes.add(each.toString());
+            }
+        } else {
+            type = member.asType().toString();
+            if (member instanceof VariableElement) {
+                constant = ((VariableElement) member).getConstantValue();
+            }
+        }
+        return new MemberSnapshot(member.getSimpleName().toString(), member.getKind(), member.getModifiers(),
+                typeParameters, type, parameterNames.build(), parameterTypes.build(), varArgs, thrownTypes.build(),
+                constant, AnnotationSnapshot.of(member.getAnnotationMirrors(), elements));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ElementKind getKind() {
+        return kind;
+    }
+
+    public Set<Modifier> getModifiers() {
+        return modifiers;
+    }
+
+    /**
+     * Returns a method's or constructor's type parameters, with their bounds, such as {@code T extends java.lang.Number}.
+     */
+    public List<String> getTypeParameters() {
+        return typeParameters;
+    }
+
+    /**
+     * Returns the field type, or the return type of a method or constructor.
+     */
+    public String getType() {
+        return type;
+    }
+
+    public List<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    public List<String> getParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * Returns true if the last parameter of a method or constructor is variable arity.
+     */
+    public boolean isVarArgs() {
+        return varArgs;
+    }
+
+    /**
+     * Returns the types a method or constructor declares it throws.
+     */
+    public List<String> getThrownTypes() {
+        return thrownTypes;
+    }
+
+    /**
+     * Returns the value of a constant field, or null.
+     */
+    public Object getConstantValue() {
+        return constantValue;
+    }
+
+    public List<AnnotationSnapshot> getAnnotations() {
+        return annotations;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MemberSnapshot that = (MemberSnapshot) o;
+        return name.equals(that.name)
+                && kind == that.kind
+                && modifiers.equals(that.modifiers)
+                && typeParameters.equals(that.typeParameters)
+                && type.equals(that.type)
+                && parameterNames.equals(that.parameterNames)
+                && parameterTypes.equals(that.parameterTypes)
+                && varArgs == that.varArgs
+                && thrownTypes.equals(that.thrownTypes)
+                && (constantValue == null ? that.constantValue == null : constantValue.equals(that.constantValue))
+                && annotations.equals(that.annotations);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + kind.hashCode();
+        result = 31 * result + modifiers.hashCode();
+        result = 31 * result + type.hashCode();
+        result = 31 * result + parameterTypes.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + name + (kind == ElementKind.METHOD || kind == ElementKind.CONSTRUCTOR ? parameterTypes.toString() : "")
+                + ": " + type;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Records the wall and CPU time a processor spends in each round, along with named phases and counters within the
+ * round.  Processors only create one of these when {@link ProcessorOptions#TIMING} is enabled, so none of this costs
+ * anything otherwise.
+ * <p>
+ * CPU time is that of the processor thread only; work done on other threads, such as sharded analysis, shows up in
+ * the wall time but not the CPU time.  CPU time is reported as -1 if the JVM can't measure it.
+ */
+@ParametersAreNonnullByDefault
+final class ProcessingTimer {
+
+    /**
+     * The values {@link ProcessorOptions#TIMING} may take.
+     */
+    enum Mode {
+        OFF, LOG, JSON;
+
+        static Mode of(String value) {
+            for (Mode each : values()) {
+                if (each.name().equalsIgnoreCase(value.trim())) {
+                    return each;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final List<Round> rounds = new ArrayList<>();
+    private Round current;
+
+    /**
+     * Starts timing a new round.
+     */
+    void beginRound() {
+        current = new Round(rounds.size() + 1);
+        current.wallStart = System.nanoTime();
+        current.cpuStart = cpuTime();
+    }
+
+    /**
+     * Stops timing the current round and returns it.
+     */
+    Round endRound(boolean processingOver) {
+        Round round = current;
+        round.wallNanos = System.nanoTime() - round.wallStart;
+        round.cpuNanos = round.cpuStart < 0 ? -1 : cpuTime() - round.cpuStart;
+        round.processingOver = processingOver;
+        rounds.add(round);
+        current = null;
+        return round;
+    }
+
+    /**
+     * Returns a timestamp to pass to {@link #phase(String, long)} once the phase is over.
+     */
+    long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records that the phase {@code name} of the current round has ended.  Phases with the same name add up.
+     */
+    void phase(String name, long start) {
+        add(current.phases, name, System.nanoTime() - start);
+    }
+
+    /**
+     * Adds {@code amount} to the counter {@code name} for the current round.
+     */
+    void count(String name, long amount) {
+        add(current.counters, name, amount);
+    }
+
+    /**
+     * Writes every round recorded so far as a JSON document.
+     */
+    void writeJson(String processor, Appendable out) throws IOException {
+        Json json = new Json(out);
+        json.beginObject()
+                .name("processor").value(processor)
+                .name("rounds").beginArray();
+        for (Round each : rounds) {
+            json.beginObject()
+                    .name("round").value(each.number)
+                    .name("processingOver").value(each.processingOver)
+                    .name("wallNanos").value(each.wallNanos)
+                    .name("cpuNanos").value(each.cpuNanos)
+                    .name("phases");
+            writeMap(json, each.phases);
+            json.name("counters");
+            writeMap(json, each.counters);
+            json.endObject();
+        }
+        json.endArray().endObject();
+    }
+
+    private static void writeMap(Json json, Map<String, Long> map) throws IOException {
+        json.beginObject();
+        for (Map.Entry<String, Long> each : map.entrySet()) {
+            json.name(each.getKey()).value(each.getValue());
+        }
+        json.endObject();
+    }
+
+    private static void add(Map<String, Long> map, String name, long amount) {
+        Long old = map.get(name);
+        map.put(name, old == null ? amount : old + amount);
+    }
+
+    private static long cpuTime() {
+        try {
+            if (THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled()) {
+                return THREADS.getCurrentThreadCpuTime();
+            }
+        } catch (UnsupportedOperationException ignored) {
+            // Fall through; we just won't report CPU time
+        }
+        return -1;
+    }
+
+    /**
+     * The timings recorded for one round.
+     */
+    static final class Round {
+        private final int number;
+        private final Map<String, Long> phases = new LinkedHashMap<>();
+        private final Map<String, Long> counters = new LinkedHashMap<>();
+        private long wallStart;
+        private long cpuStart;
+        private long wallNanos;
+        private long cpuNanos;
+        private boolean processingOver;
+
+        private Round(int number) {
+            this.number = number;
+        }
+
+        /**
+         * Describes this round on one line, for the log.
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Round ").append(number).append(": ").append(millis(wallNanos)).append(" wall");
+            if (cpuNanos >= 0) {
+                sb.append(", ").append(millis(cpuNanos)).append(" cpu");
+            }
+            for (Map.Entry<String, Long> each : phases.entrySet()) {
+                sb.append(", ").append(each.getKey()).append(' ').append(millis(each.getValue()));
+            }
+            for (Map.Entry<String, Long> each : counters.entrySet()) {
+                sb.append(", ").append(each.getKey()).append(' ').append(each.getValue());
+            }
+            return sb.toString();
+        }
+
+        private static String millis(long nanos) {
+            return String.format(Locale.ROOT, "%.3f ms", nanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.processing.ProcessingEnvironment;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code -A} options understood by every processor extending {@link AbstractProcessorExt}.
+ */
+@ParametersAreNonnullByDefault
+public final class ProcessorOptions {
+    private ProcessorOptions() {}
+
+    /**
+     * Number of worker threads used for sharded analysis and rendering.  Defaults to 1, which runs everything on the
+     * processor thread; analyzers and writers must be safe to run in parallel before this is raised.
+     */
+    public static final String PARALLELISM = "annotationutils.parallelism";
+
+    /**
+     * Directory to keep the persistent analysis cache in, for analyzers that implement
+     * {@link AnalyzeAndWriteProcessor.CacheableAnalyzer}.  The cache is disabled unless this is set.  This should be an
+     * absolute path under the build directory.
+     */
+    public static final String CACHE_DIR = "annotationutils.cache.dir";
+
+    /**
+     * Roughly the most bytes the persistent analysis cache may use.  Defaults to 64 MiB.
+     */
+    public static final String CACHE_MAX_BYTES = "annotationutils.cache.maxBytes";
+
+    /**
+     * Whether to time each round: {@code off} (the default), {@code log} to report each round as a note, or
+     * {@code json} to write every round to {@code annotationutils-timing/<processor class>.json} in the source output
+     * once processing is over.
+     */
+    public static final String TIMING = "annotationutils.timing";
+
+    /**
+     * If true, the {@link Logger} holds each round's diagnostics until the end of the round, then prints each distinct
+     * one once.  Defaults to false.
+     */
+    public static final String LOG_BUFFERED = "annotationutils.log.buffered";
+
+    /**
+     * The least severe {@link Logger.Level} to log: {@code error}, {@code mandatory_warning}, {@code warning},
+     * {@code note} or {@code other}.  Defaults to {@code other}, which logs everything.  Errors are always logged.
+     */
+    public static final String LOG_LEVEL = "annotationutils.log.level";
+
+    /**
+     * Most messages the {@link Logger} prints at each level in a round.  Defaults to 0, no limit.
+     */
+    public static final String LOG_MAX_PER_LEVEL = "annotationutils.log.maxPerLevel";
+
+    /**
+     * Most messages the {@link Logger} prints about any one element in a round.  Defaults to 0, no limit.
+     */
+    public static final String LOG_MAX_PER_ELEMENT = "annotationutils.log.maxPerElement";
+
+    /**
+     * Most messages the {@link Logger} prints about annotations of any one type in a round.  Defaults to 0, no limit.
+     */
+    public static final String LOG_MAX_PER_ANNOTATION_TYPE = "annotationutils.log.maxPerAnnotationType";
+
+    /**
+     * Also writes every diagnostic the {@link Logger} logs to a report in the source output:
+     * {@code annotationutils-diagnostics/<processor class>.jsonl} for {@code jsonl}, or {@code .sarif} for
+     * {@code sarif}.  There is no report by default.
+     */
+    public static final String LOG_REPORT = "annotationutils.log.report";
+
+    /**
+     * If true, a fatal message from the {@link Logger} doesn't stop processing.  Analysis goes on, so every fatal error
+     * in the round is reported, and the round is aborted once at the end, before anything is written.  Defaults to
+     * false.
+     */
+    public static final String LOG_AGGREGATE = "annotationutils.log.aggregate";
+
+    static final Set<String> ALL = ImmutableSet.of(
+            PARALLELISM,
+            CACHE_DIR,
+            CACHE_MAX_BYTES,
+            TIMING,
+            LOG_BUFFERED,
+            LOG_LEVEL,
+            LOG_MAX_PER_LEVEL,
+            LOG_MAX_PER_ELEMENT,
+            LOG_MAX_PER_ANNOTATION_TYPE,
+            LOG_REPORT,
+            LOG_AGGREGATE
+    );
+
+    /**
+     * Returns the value of an option, or {@code defaultValue} if it isn't set.
+     */
+    public static String stringOption(ProcessingEnvironment processingEnv, String name, String defaultValue) {
+        String value = processingEnv.getOptions().get(name);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Returns the value of a numeric option, or {@code defaultValue} if it isn't set.
+     *
+     * @throws AbstractProcessorExt.AbortProcessingException if the option is set but isn't a number
+     */
+    public static long longOption(ProcessingEnvironment processingEnv, String name, long defaultValue) {
+        String value = processingEnv.getOptions().get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new AbstractProcessorExt.AbortProcessingException(
+                    "Option -A" + name + " must be a number, not '" + value + "'", null, null, null);
+        }
+    }
+
+    /**
+     * Returns the value of a boolean option, or {@code defaultValue} if it isn't set.  An option given without a value,
+     * as in {@code -Aname}, is true.
+     *
+     * @throws AbstractProcessorExt.AbortProcessingException if the option is set to something other than true or false
+     */
+    public static boolean booleanOption(ProcessingEnvironment processingEnv, String name, boolean defaultValue) {
+        Map<String, String> options = processingEnv.getOptions();
+        if (!options.containsKey(name)) {
+            return defaultValue;
+        }
+        String value = options.get(name);
+        if (value == null || value.trim().equalsIgnoreCase("true")) {
+            return true;
+        } else if (value.trim().equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new AbstractProcessorExt.AbortProcessingException(
+                "Option -A" + name + " must be true or false, not '" + value + "'", null, null, null);
+    }
+
+    public static int parallelism(ProcessingEnvironment processingEnv) {
+        long value = longOption(processingEnv, PARALLELISM, 1);
+        return (int) Math.max(1, Math.min(value, Short.MAX_VALUE));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs a {@link AnalyzeAndWriteProcessor.ShardedAnalyzer} over a list of snapshots on a {@link ForkJoinPool}.
+ */
+@ParametersAreNonnullByDefault
+public final class ShardedAnalysis {
+    private ShardedAnalysis() {}
+
+    /**
+     * How many shards to make per worker, so that uneven shards still keep every worker busy.
+     */
+    private static final int SHARDS_PER_WORKER = 4;
+
+    /**
+     * Splits {@code roots} into shards and analyzes them on {@code pool}.
+     *
+     * @return one partial result per shard, in the same order as the roots they came from
+     */
+    public static <Partial> List<Partial> analyze(ForkJoinPool pool, List<TypeSnapshot> roots,
+                                                  AnalyzeAndWriteProcessor.ShardedAnalyzer<Partial, ?> analyzer) {
+        if (roots.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int shards = Math.min(roots.size(), pool.getParallelism() * SHARDS_PER_WORKER);
+        return pool.invoke(new ShardTask<>(analyzer, roots, 0, shards));
+    }
+
+    /**
+     * Analyzes shards {@code [from, to)} of the roots, splitting the range in half until a single shard is left.
+     */
+    private static final class ShardTask<Partial> extends RecursiveTask<List<Partial>> {
+        private static final long serialVersionUID = 1L;
+
+        private final AnalyzeAndWriteProcessor.ShardedAnalyzer<Partial, ?> analyzer;
+        private final List<TypeSnapshot> roots;
+        private final int totalShards;
+        private final int from;
+        private final int to;
+
+        ShardTask(AnalyzeAndWriteProcessor.ShardedAnalyzer<Partial, ?> analyzer, List<TypeSnapshot> roots, int from, int to) {
+            this(analyzer, roots, to, from, to);
+        }
+
+        private ShardTask(AnalyzeAndWriteProcessor.ShardedAnalyzer<Partial, ?> analyzer, List<TypeSnapshot> roots,
+                          int totalShards, int from, int to) {
+            this.analyzer = analyzer;
+            this.roots = roots;
+            this.totalShards = totalShards;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Partial> compute() {
+            if (to - from == 1) {
+                int start = (int) ((long) roots.size() * from / totalShards);
+                int end = (int) ((long) roots.size() * to / totalShards);
+                return Collections.singletonList(analyzer.analyze(roots.subList(start, end)));
+            }
+            int middle = (from + to) >>> 1;
+            ShardTask<Partial> left = new ShardTask<>(analyzer, roots, totalShards, from, middle);
+            ShardTask<Partial> right = new ShardTask<>(analyzer, roots, totalShards, middle, to);
+            left.fork();
+            List<Partial> result = new ArrayList<>(to - from);
+            List<Partial> rightResult = right.compute();
+            result.addAll(left.join());
+            result.addAll(rightResult);
+            return result;
+        }
+    }
+}
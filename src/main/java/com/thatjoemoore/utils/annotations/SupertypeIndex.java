@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Answers subtype questions about declared types without asking {@link Types} each time.
+ * <p>
+ * Each type gets a number the first time it is seen, and the set of its supertypes, itself included, is kept as a
+ * {@link BitSet} of those numbers.  Whether one class or interface extends or implements another, ignoring type
+ * arguments, is then a single bit test.  Questions that depend on type arguments still go to {@link Types}, but each
+ * answer is remembered under the erased types asked about, so that equal mirrors made separately share it; the erased
+ * test answers most of them without that.
+ * <p>
+ * Elements and types shouldn't outlive their round, so neither should an index.
+ * {@link AbstractProcessorExt#supertypes()} makes a new one each round.
+ */
+@ParametersAreNonnullByDefault
+public final class SupertypeIndex {
+    private final Types types;
+    private final TypeElement object;
+
+    private final Map<TypeElement, Integer> ids = new IdentityHashMap<>();
+    /**
+     * Each type's supertypes, by its id.  Null while they are being worked out.
+     */
+    private final List<BitSet> supertypes = new ArrayList<>();
+
+    /**
+     * The answers from {@link Types}, by the erased element, or the mirror if it has none, of each type and supertype.
+     */
+    private final Map<Object, Map<Object, List<Answer>>> subtypes = new IdentityHashMap<>();
+    private final Map<Object, Map<Object, List<Answer>>> assignable = new IdentityHashMap<>();
+
+    public SupertypeIndex(Types types, Elements elements) {
+        this.types = requireNonNull(types, "types cannot be null");
+        this.object = requireNonNull(elements, "elements cannot be null").getTypeElement(Object.class.getName());
+    }
+
+    /**
+     * Returns true if {@code type} is {@code supertype}, or extends or implements it, directly or not, ignoring type
+     * arguments.
+     */
+    public boolean isSubtype(TypeElement type, TypeElement supertype) {
+        if (type == supertype || supertype == object) {
+            return true;
+        }
+        BitSet supertypes = supertypes(type);
+        // Every supertype of type has an id by now, so one without can't be
+        Integer id = ids.get(supertype);
+        return id != null && supertypes.get(id);
+    }
+
+    /**
+     * Returns true if {@code type} is a subtype of {@code supertype}, as {@link Types#isSubtype} would.
+     */
+    public boolean isSubtype(TypeMirror type, TypeMirror supertype) {
+        Boolean erased = erasedCheck(type, supertype);
+        if (erased != null) {
+            return erased;
+        }
+        return memo(subtypes, type, supertype, false);
+    }
+
+    /**
+     * Returns true if {@code type} is assignable to {@code supertype}, as {@link Types#isAssignable} would.
+     */
+    public boolean isAssignable(TypeMirror type, TypeMirror supertype) {
+        if (type.getKind() == TypeKind.DECLARED && supertype.getKind() == TypeKind.DECLARED) {
+            Boolean erased = erasedCheck(type, supertype);
+            if (erased != null) {
+                return erased;
+            }
+        }
+        return memo(assignable, type, supertype, true);
+    }
+
+    /**
+     * Answers from the erased types alone when that is enough: when they aren't related, or neither {@code supertype}
+     * nor any type enclosing it has type arguments to check, as {@code Outer<String>.Inner} does.  Returns null when it
+     * isn't.
+     */
+    private Boolean erasedCheck(TypeMirror type, TypeMirror supertype) {
+        if (type.getKind() != TypeKind.DECLARED || supertype.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        TypeElement superElement = (TypeElement) ((DeclaredType) supertype).asElement();
+        if (!isSubtype(element, superElement)) {
+            return false;
+        }
+        return isParameterized(supertype) ? null : Boolean.TRUE;
+    }
+
+    private boolean memo(Map<Object, Map<Object, List<Answer>>> memo, TypeMirror type, TypeMirror supertype, boolean assign) {
+        Object key = key(type);
+        Map<Object, List<Answer>> bySupertype = memo.get(key);
+        if (bySupertype == null) {
+            bySupertype = new IdentityHashMap<>();
+            memo.put(key, bySupertype);
+        }
+        Object superKey = key(supertype);
+        List<Answer> answers = bySupertype.get(superKey);
+        if (answers == null) {
+            answers = new ArrayList<>(1);
+            bySupertype.put(superKey, answers);
+        }
+        for (Answer each : answers) {
+            if (sameType(each.type, type) && sameType(each.supertype, supertype)) {
+                return each.answer;
+            }
+        }
+        boolean answer = assign ? types.isAssignable(type, supertype) : types.isSubtype(type, supertype);
+        answers.add(new Answer(type, supertype, answer));
+        return answer;
+    }
+
+    private static Object key(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED ? ((DeclaredType) type).asElement() : type;
+    }
+
+    /**
+     * Returns true if {@code b} is the same type as {@code a}, which has the same {@link #key}.
+     */
+    private boolean sameType(TypeMirror a, TypeMirror b) {
+        if (a == b) {
+            return true;
+        }
+        if (a.getKind() == TypeKind.DECLARED && !isParameterized(a) && !isParameterized(b)) {
+            return true;
+        }
+        return types.isSameType(a, b);
+    }
+
+    /**
+     * Returns true if {@code type}, or any type enclosing it, has type arguments.
+     */
+    private static boolean isParameterized(TypeMirror type) {
+        while (type.getKind() == TypeKind.DECLARED) {
+            DeclaredType declared = (DeclaredType) type;
+            if (!declared.getTypeArguments().isEmpty()) {
+                return true;
+            }
+            type = declared.getEnclosingType();
+        }
+        return false;
+    }
+
+    private int id(TypeElement type) {
+        Integer id = ids.get(type);
+        if (id == null) {
+            id = supertypes.size();
+            ids.put(type, id);
+            supertypes.add(null);
+        }
+        return id;
+    }
+
+    private BitSet supertypes(TypeElement type) {
+        int id = id(type);
+        BitSet result = supertypes.get(id);
+        if (result != null) {
+            return result;
+        }
+        result = new BitSet();
+        result.set(id);
+        // Stands in while the supertypes are worked out, in case a broken class hierarchy is cyclic
+        supertypes.set(id, result);
+        addSupertypes(type.getSuperclass(), result);
+        for (TypeMirror each : type.getInterfaces()) {
+            addSupertypes(each, result);
+        }
+        return result;
+    }
+
+    private void addSupertypes(TypeMirror type, BitSet into) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return;
+        }
+        Element element = ((DeclaredType) type).asElement();
+        into.or(supertypes((TypeElement) element));
+    }
+
+    /**
+     * An answer from {@link Types}, with the mirrors it was about.
+     */
+    private static final class Answer {
+        private final TypeMirror type;
+        private final TypeMirror supertype;
+        private final boolean answer;
+
+        private Answer(TypeMirror type, TypeMirror supertype, boolean answer) {
+            this.type = type;
+            this.supertype = supertype;
+            this.answer = answer;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import javax.annotation.Nonnull;
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.QualifiedNameable;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Filer} that enforces Gradle's rules for originating elements and records which elements each generated file
+ * came from.
+ * <p>
+ * Every {@code create*} call must pass at least one originating element.  In {@link IncrementalMode#ISOLATING} mode it
+ * must pass exactly one.  Calls that break these rules throw an {@link IllegalArgumentException} before anything is
+ * created, so mistakes show up on the first build instead of as stale output in a later incremental one.
+ */
+public class TrackedFiler implements Filer {
+    private final Filer delegate;
+    private final IncrementalMode mode;
+    private final Map<String, List<String>> generated = new LinkedHashMap<>();
+
+    public TrackedFiler(@Nonnull Filer delegate, @Nonnull IncrementalMode mode) {
+        this.delegate = requireNonNull(delegate, "delegate cannot be null");
+        this.mode = requireNonNull(mode, "mode cannot be null");
+    }
+
+    public IncrementalMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns every file created through this filer, mapped to the qualified names of its originating elements, in
+     * creation order.
+     */
+    public Map<String, List<String>> getGeneratedFiles() {
+        return Collections.unmodifiableMap(generated);
+    }
+
+    @Override
+    public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+        String file = name.toString();
+        List<String> origins = check(file, originatingElements);
+        JavaFileObject result = delegate.createSourceFile(name, originatingElements);
+        generated.put(file, origins);
+        return result;
+    }
+
+    @Override
+    public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+        String file = name.toString();
+        List<String> origins = check(file, originatingElements);
+        JavaFileObject result = delegate.createClassFile(name, originatingElements);
+        generated.put(file, origins);
+        return result;
+    }
+
+    @Override
+    public FileObject createResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName, Element... originatingElements) throws IOException {
+        String file = location.getName() + ':' + (pkg.length() == 0 ? "" : pkg.toString().replace('.', '/') + '/') + relativeName;
+        List<String> origins = check(file, originatingElements);
+        FileObject result = delegate.createResource(location, pkg, relativeName, originatingElements);
+        generated.put(file, origins);
+        return result;
+    }
+
+    @Override
+    public FileObject getResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName) throws IOException {
+        return delegate.getResource(location, pkg, relativeName);
+    }
+
+    private List<String> check(String file, Element[] originatingElements) {
+        int count = originatingElements == null ? 0 : originatingElements.length;
+        if (count == 0) {
+            throw new IllegalArgumentException("No originating elements given for " + file
+                    + "; Gradle cannot process " + mode.gradleName() + " processors incrementally without them");
+        }
+        if (mode == IncrementalMode.ISOLATING && count != 1) {
+            throw new IllegalArgumentException(count + " originating elements given for " + file
+                    + "; isolating processors must give exactly one");
+        }
+        List<String> names = new ArrayList<>(count);
+        for (Element each : originatingElements) {
+            if (each == null) {
+                throw new IllegalArgumentException("Null originating element given for " + file);
+            }
+            names.add(each instanceof QualifiedNameable
+                    ? ((QualifiedNameable) each).getQualifiedName().toString()
+                    : each.toString());
+        }
+        return Collections.unmodifiableList(names);
+    }
+}
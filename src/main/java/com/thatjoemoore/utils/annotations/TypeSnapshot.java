@@ -0,0 +1,227 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable, thread-safe copy of the parts of a {@link TypeElement} analyzers usually need.
+ * <p>
+ * Snapshots are taken on the processor thread with {@link #of(TypeElement, Elements)}.  After that they hold no
+ * references to the compiler's model, so they can be handed to other threads, cached, or serialized, and the
+ * {@code Element} they came from can be dropped.
+ */
+@ParametersAreNonnullByDefault
+public final class TypeSnapshot implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    private final String qualifiedName;
+    private final String binaryName;
+    private final String simpleName;
+    private final ElementKind kind;
+    private final ImmutableSet<Modifier> modifiers;
+    private final ImmutableList<String> typeParameters;
+    private final String superclass;
+    private final ImmutableList<String> interfaces;
+    private final ImmutableList<AnnotationSnapshot> annotations;
+    private final ImmutableList<MemberSnapshot> members;
+    private final ImmutableList<TypeSnapshot> nestedTypes;
+
+    public TypeSnapshot(String qualifiedName, String binaryName, String simpleName, ElementKind kind,
+                        Set<Modifier> modifiers, List<String> typeParameters, @Nullable String superclass,
+                        List<String> interfaces,
+                        List<AnnotationSnapshot> annotations, List<MemberSnapshot> members,
+                        List<TypeSnapshot> nestedTypes) {
+        this.qualifiedName = requireNonNull(qualifiedName, "qualifiedName cannot be null");
+        this.binaryName = requireNonNull(binaryName, "binaryName cannot be null");
+        this.simpleName = requireNonNull(simpleName, "simpleName cannot be null");
+        this.kind = requireNonNull(kind, "kind cannot be null");
+        this.modifiers = Sets.immutableEnumSet(modifiers);
+        this.typeParameters = ImmutableList.copyOf(typeParameters);
+        this.superclass = superclass;
+        this.interfaces = ImmutableList.copyOf(interfaces);
+        this.annotations = ImmutableList.copyOf(annotations);
+        this.members = ImmutableList.copyOf(members);
+        this.nestedTypes = ImmutableList.copyOf(nestedTypes);
+    }
+
+    /**
+     * Copies a type, its members and its nested types.  Must be called on the processor thread.
+     */
+    public static TypeSnapshot of(TypeElement type, Elements elements) {
+        ImmutableList.Builder<String> interfaces = ImmutableList.builder();
+        for (TypeMirror each : type.getInterfaces()) {
+            interfaces.add(each.toString());
+        }
+        ImmutableList.Builder<MemberSnapshot> members = ImmutableList.builder();
+        ImmutableList.Builder<TypeSnapshot> nested = ImmutableList.builder();
+        for (Element each : type.getEnclosedElements()) {
+            if (each instanceof TypeElement) {
+                nested.add(of((TypeElement) each, elements));
+            } else {
+                members.add(MemberSnapshot.of(each, elements));
+            }
+        }
+        TypeMirror superclass = type.getSuperclass();
+        return new TypeSnapshot(
+                type.getQualifiedName().toString(),
+                elements.getBinaryName(type).toString(),
+                type.getSimpleName().toString(),
+                type.getKind(),
+                type.getModifiers(),
+                typeParameters(type.getTypeParameters()),
+                superclass.getKind() == TypeKind.NONE ? null : superclass.toString(),
+                interfaces.build(),
+                AnnotationSnapshot.of(type.getAnnotationMirrors(), elements),
+                members.build(),
+                nested.build());
+    }
+
+    /**
+     * Renders type parameters as they are declared, with their bounds, such as {@code T extends java.lang.Number}.
+     */
+    static ImmutableList<String> typeParameters(List<? extends TypeParameterElement> parameters) {
+        ImmutableList.Builder<String> result = ImmutableList.builder();
+        for (TypeParameterElement each : parameters) {
+            StringBuilder declared = new StringBuilder(each.getSimpleName());
+            List<? extends TypeMirror> bounds = each.getBounds();
+            if (!(bounds.size() == 1 && bounds.get(0).toString().equals(Object.class.getName()))) {
+                String separator = " extends ";
+                for (TypeMirror bound : bounds) {
+                    declared.append(separator).append(bound);
+                    separator = " & ";
+                }
+            }
+            result.add(declared.toString());
+        }
+        return result.build();
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public String getBinaryName() {
+        return binaryName;
+    }
+
+    public String getSimpleName() {
+        return simpleName;
+    }
+
+    public ElementKind getKind() {
+        return kind;
+    }
+
+    public Set<Modifier> getModifiers() {
+        return modifiers;
+    }
+
+    /**
+     * Returns the type parameters, with their bounds, such as {@code T extends java.lang.Number}.
+     */
+    public List<String> getTypeParameters() {
+        return typeParameters;
+    }
+
+    /**
+     * Returns the superclass, or null for interfaces and {@code java.lang.Object}.
+     */
+    public String getSuperclass() {
+        return superclass;
+    }
+
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    public List<AnnotationSnapshot> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * Returns the annotation of the given type, or null if this type isn't directly annotated with it.
+     */
+    public AnnotationSnapshot getAnnotation(String annotationType) {
+        for (AnnotationSnapshot each : annotations) {
+            if (each.getAnnotationType().equals(annotationType)) {
+                return each;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns every field, method, constructor and enum constant, in declaration order.
+     */
+    public List<MemberSnapshot> getMembers() {
+        return members;
+    }
+
+    public List<TypeSnapshot> getNestedTypes() {
+        return nestedTypes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TypeSnapshot that = (TypeSnapshot) o;
+        return qualifiedName.equals(that.qualifiedName)
+                && binaryName.equals(that.binaryName)
+                && kind == that.kind
+                && modifiers.equals(that.modifiers)
+                && typeParameters.equals(that.typeParameters)
+                && (superclass == null ? that.superclass == null : superclass.equals(that.superclass))
+                && interfaces.equals(that.interfaces)
+                && annotations.equals(that.annotations)
+                && members.equals(that.members)
+                && nestedTypes.equals(that.nestedTypes);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = qualifiedName.hashCode();
+        result = 31 * result + modifiers.hashCode();
+        result = 31 * result + members.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + qualifiedName;
+    }
+}
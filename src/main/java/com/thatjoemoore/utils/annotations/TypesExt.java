@@ -19,9 +19,14 @@ package com.thatjoemoore.utils.annotations;
 import com.google.auto.common.MoreTypes;
 
 import javax.annotation.ParametersAreNonnullByDefault;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ErrorType;
 import javax.lang.model.type.PrimitiveType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.SimpleTypeVisitor7;
 import javax.lang.model.util.Types;
 import java.util.EnumSet;
 import java.util.Set;
@@ -51,4 +56,40 @@ public final class TypesExt {
         return type;
     }
 
+    /**
+     * Returns true if {@code type}, or any array component, type argument or wildcard bound inside it, is a type the
+     * compiler couldn't resolve.
+     */
+    public static boolean isUnresolved(TypeMirror type) {
+        return type.accept(UNRESOLVED, null);
+    }
+
+    private static final SimpleTypeVisitor7<Boolean, Void> UNRESOLVED = new SimpleTypeVisitor7<Boolean, Void>(false) {
+        @Override
+        public Boolean visitError(ErrorType t, Void p) {
+            return true;
+        }
+
+        @Override
+        public Boolean visitArray(ArrayType t, Void p) {
+            return t.getComponentType().accept(this, p);
+        }
+
+        @Override
+        public Boolean visitDeclared(DeclaredType t, Void p) {
+            for (TypeMirror each : t.getTypeArguments()) {
+                if (each.accept(this, p)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Boolean visitWildcard(WildcardType t, Void p) {
+            return (t.getExtendsBound() != null && t.getExtendsBound().accept(this, p))
+                    || (t.getSuperBound() != null && t.getSuperBound().accept(this, p));
+        }
+    };
+
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations.test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The outcome of one {@link InMemoryCompiler} run: whether it succeeded, what it reported, what it wrote and how long
+ * it took.
+ */
+@ParametersAreNonnullByDefault
+public final class Compilation {
+    private final boolean succeeded;
+    private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+    private final Map<String, byte[]> files;
+    private final long wallNanos;
+
+    Compilation(boolean succeeded, List<Diagnostic<? extends JavaFileObject>> diagnostics, Map<String, byte[]> files, long wallNanos) {
+        this.succeeded = succeeded;
+        this.diagnostics = ImmutableList.copyOf(diagnostics);
+        this.files = ImmutableMap.copyOf(new TreeMap<>(files));
+        this.wallNanos = wallNanos;
+    }
+
+    /**
+     * Returns true if javac reported no errors.
+     */
+    public boolean succeeded() {
+        return succeeded;
+    }
+
+    /**
+     * Returns everything javac and the processors reported, in the order they reported it.
+     */
+    public List<Diagnostic<? extends JavaFileObject>> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Returns the diagnostics of the given kind, in the order they were reported.
+     */
+    public List<Diagnostic<? extends JavaFileObject>> getDiagnostics(Diagnostic.Kind kind) {
+        List<Diagnostic<? extends JavaFileObject>> result = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> each : diagnostics) {
+            if (each.getKind() == kind) {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the messages of the diagnostics of the given kind, in the order they were reported.
+     */
+    public List<String> getMessages(Diagnostic.Kind kind) {
+        List<String> result = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> each : getDiagnostics(kind)) {
+            result.add(each.getMessage(null));
+        }
+        return result;
+    }
+
+    /**
+     * Returns every file the compilation wrote, keyed by location name and path, like
+     * {@code CLASS_OUTPUT/com/example/Foo.class}, sorted by key.
+     */
+    public Map<String, byte[]> getFiles() {
+        return files;
+    }
+
+    /**
+     * Returns the content of a source file a processor generated, or null if none was generated for
+     * {@code qualifiedName}.
+     */
+    public String getGeneratedSource(String qualifiedName) {
+        String path = qualifiedName.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension;
+        byte[] content = files.get(InMemoryCompiler.key(StandardLocation.SOURCE_OUTPUT, path));
+        if (content == null) {
+            content = files.get(InMemoryCompiler.key(StandardLocation.CLASS_OUTPUT, path));
+        }
+        return content == null ? null : new String(content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the class file compiled for {@code binaryName}, or null if there isn't one.
+     */
+    public byte[] getClassFile(String binaryName) {
+        return files.get(InMemoryCompiler.key(StandardLocation.CLASS_OUTPUT,
+                binaryName.replace('.', '/') + JavaFileObject.Kind.CLASS.extension));
+    }
+
+    /**
+     * Returns a resource a processor wrote, or null if it wasn't written.
+     *
+     * @param path the resource's path within {@code location}, like {@code META-INF/services/javax.annotation.processing.Processor}
+     */
+    public byte[] getResource(JavaFileManager.Location location, String path) {
+        return files.get(InMemoryCompiler.key(location, path));
+    }
+
+    /**
+     * Returns how long javac ran, including every round of annotation processing.
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations.test;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.processing.Processor;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs javac in this JVM on sources held in memory, keeping every file it writes in memory as well, so processors can
+ * be tested (or benchmarked) against the real compiler without touching the disk.
+ * <p>
+ * Creating one of these is relatively expensive, since it sets up the compiler's file manager; reuse it for as many
+ * compilations as you like.  It is not thread-safe, so use one per thread.
+ */
+@ParametersAreNonnullByDefault
+public final class InMemoryCompiler {
+    private final JavaCompiler compiler;
+    /**
+     * Shared between compilations, so the platform classes are only indexed once.
+     */
+    private final StandardJavaFileManager standard;
+
+    /**
+     * @throws IllegalStateException if this JVM has no system Java compiler, as when running on a JRE
+     */
+    public InMemoryCompiler() {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No system Java compiler is available; this must run on a JDK");
+        }
+        standard = compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compiles {@code sources}, running {@code processors} on them.  If no processors are given, annotation processing
+     * is turned off entirely, rather than discovering processors on the class path.
+     */
+    public Compilation compile(Iterable<? extends JavaFileObject> sources, Processor... processors) {
+        return compile(Collections.<String>emptyList(), sources, processors);
+    }
+
+    /**
+     * Compiles {@code sources} with extra javac {@code options}, such as {@code -Akey=value}, running
+     * {@code processors} on them.
+     */
+    public Compilation compile(Iterable<String> options, Iterable<? extends JavaFileObject> sources, Processor... processors) {
+        requireNonNull(options, "options cannot be null");
+        requireNonNull(sources, "sources cannot be null");
+        requireNonNull(processors, "processors cannot be null");
+
+        List<String> allOptions = new ArrayList<>();
+        for (String each : options) {
+            allOptions.add(each);
+        }
+        if (processors.length == 0) {
+            allOptions.add("-proc:none");
+        }
+
+        Output output = new Output(standard);
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, output, diagnostics, allOptions, null, sources);
+        if (processors.length > 0) {
+            task.setProcessors(Arrays.asList(processors));
+        }
+
+        long start = System.nanoTime();
+        boolean succeeded = task.call();
+        long wallNanos = System.nanoTime() - start;
+
+        return new Compilation(succeeded, diagnostics.getDiagnostics(), output.files, wallNanos);
+    }
+
+    /**
+     * Returns a source file for the class {@code className}, with the given code.  The file name is derived from the
+     * class name, so use the top-level class' name, or {@code package-info} for a package.
+     */
+    public static JavaFileObject source(String className, CharSequence code) {
+        return new Source(requireNonNull(className, "className cannot be null"), requireNonNull(code, "code cannot be null"));
+    }
+
+    /**
+     * Returns the key {@link Compilation#getFiles()} uses for a file.
+     */
+    static String key(JavaFileManager.Location location, String path) {
+        return location.getName() + '/' + path;
+    }
+
+    private static final class Source extends SimpleJavaFileObject {
+        private final CharSequence code;
+
+        Source(String className, CharSequence code) {
+            super(URI.create("mem:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    /**
+     * Keeps every class file, generated source and resource javac writes in {@link #files}.  Everything else, such as
+     * finding platform and class path classes, is left to the standard file manager.
+     */
+    private static final class Output extends ForwardingJavaFileManager<JavaFileManager> {
+        private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+
+        Output(JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            return new OutputFile(key(location, className.replace('.', '/') + kind.extension), kind);
+        }
+
+        @Override
+        public FileObject getFileForOutput(Location location, String packageName, String relativeName, FileObject sibling) {
+            String path = packageName.isEmpty() ? relativeName : packageName.replace('.', '/') + '/' + relativeName;
+            return new OutputFile(key(location, path), JavaFileObject.Kind.OTHER);
+        }
+
+        @Override
+        public boolean isSameFile(FileObject a, FileObject b) {
+            if (a instanceof OutputFile || b instanceof OutputFile) {
+                return a.toUri().equals(b.toUri());
+            }
+            return super.isSameFile(a, b);
+        }
+
+        /**
+         * A file javac or a processor writes.  Generated sources are read back by javac in the next round, so these
+         * can be read once written.
+         */
+        private final class OutputFile extends SimpleJavaFileObject {
+            private final String key;
+
+            OutputFile(String key, Kind kind) {
+                super(URI.create("mem:///" + key), kind);
+                this.key = key;
+            }
+
+            @Override
+            public OutputStream openOutputStream() {
+                return new ByteArrayOutputStream() {
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        files.put(key, toByteArray());
+                    }
+                };
+            }
+
+            @Override
+            public Writer openWriter() {
+                return new OutputStreamWriter(openOutputStream(), StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public InputStream openInputStream() throws IOException {
+                return new ByteArrayInputStream(content());
+            }
+
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) throws IOException {
+                return new String(content(), StandardCharsets.UTF_8);
+            }
+
+            private byte[] content() throws IOException {
+                byte[] content = files.get(key);
+                if (content == null) {
+                    throw new IOException(key + " hasn't been written");
+                }
+                return content;
+            }
+        }
+    }
+}
@@ -19,6 +19,8 @@ package com.thatjoemoore.utils.annotations;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -27,12 +29,23 @@ import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
 
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.*;
@@ -81,6 +94,9 @@ public class AbstractProcessorExtTest {
         assertSame(roundEnvironment, fixture.roundEnv);
 
         verify(processingEnvironment).getMessager();
+        verify(processingEnvironment, atLeastOnce()).getOptions();
+        verify(processingEnvironment).getElementUtils();
+        verify(roundEnvironment).processingOver();
         verifyNoMoreInteractions(processingEnvironment, messager, roundEnvironment);
     }
 
@@ -97,10 +113,98 @@ public class AbstractProcessorExtTest {
         assertFalse(result);
 
         verify(processingEnvironment, times(2)).getMessager();
+        verify(processingEnvironment, atLeastOnce()).getOptions();
+        verify(processingEnvironment).getElementUtils();
         verify(messager).printMessage(Diagnostic.Kind.ERROR, "message", null, null, null);
+        verify(roundEnvironment).processingOver();
         verifyNoMoreInteractions(processingEnvironment, messager, roundEnvironment);
     }
 
+    @Test
+    public void testProcess_loggedFatalPrintedOnce() throws Exception {
+        fixture.fatals = Arrays.asList("first", "second");
+        fixture.result = true;
+
+        assertFalse(fixture.process(new HashSet<TypeElement>(), roundEnvironment));
+
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "first", null, null, null);
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testProcess_aggregate() throws Exception {
+        when(processingEnvironment.getOptions())
+                .thenReturn(Collections.singletonMap(ProcessorOptions.LOG_AGGREGATE, "true"));
+        fixture = new Fixture();
+        fixture.init(processingEnvironment);
+        fixture.fatals = Arrays.asList("first", "second");
+        fixture.result = true;
+
+        assertTrue(fixture.logger().isAggregating());
+        assertFalse(fixture.process(new HashSet<TypeElement>(), roundEnvironment));
+
+        InOrder inOrder = inOrder(messager);
+        inOrder.verify(messager).printMessage(Diagnostic.Kind.ERROR, "first", null, null, null);
+        inOrder.verify(messager).printMessage(Diagnostic.Kind.ERROR, "second", null, null, null);
+        verifyNoMoreInteractions(messager);
+        assertEquals(0, fixture.logger().getFatalCount());
+    }
+
+    @Test
+    public void testProcess_timingLog() throws Exception {
+        when(processingEnvironment.getOptions())
+                .thenReturn(Collections.singletonMap(ProcessorOptions.TIMING, "log"));
+        fixture = new Fixture();
+        fixture.init(processingEnvironment);
+
+        fixture.process(new HashSet<TypeElement>(), roundEnvironment);
+
+        ArgumentCaptor<CharSequence> message = ArgumentCaptor.forClass(CharSequence.class);
+        verify(messager).printMessage(eq(Diagnostic.Kind.NOTE), message.capture(), isNull(Element.class),
+                isNull(AnnotationMirror.class), isNull(AnnotationValue.class));
+        assertTrue(message.getValue().toString(), message.getValue().toString().startsWith(Fixture.class.getName() + " Round 1: "));
+    }
+
+    @Test
+    public void testProcess_timingJson() throws Exception {
+        when(processingEnvironment.getOptions())
+                .thenReturn(Collections.singletonMap(ProcessorOptions.TIMING, "json"));
+        FileObject file = mock(FileObject.class);
+        StringWriter written = new StringWriter();
+        when(file.openWriter()).thenReturn(written);
+        when(filer.createResource(StandardLocation.SOURCE_OUTPUT, "", "annotationutils-timing/" + Fixture.class.getName() + ".json"))
+                .thenReturn(file);
+        fixture = new Fixture();
+        fixture.init(processingEnvironment);
+
+        fixture.process(new HashSet<TypeElement>(), roundEnvironment);
+        verifyZeroInteractions(filer);
+
+        fixture.reset();
+        when(roundEnvironment.processingOver()).thenReturn(true);
+        fixture.process(new HashSet<TypeElement>(), roundEnvironment);
+
+        String json = written.toString();
+        assertTrue(json, json.startsWith("{\"processor\":\"" + Fixture.class.getName() + "\",\"rounds\":[{\"round\":1,\"processingOver\":false,"));
+        assertTrue(json, json.contains("{\"round\":2,\"processingOver\":true,"));
+        assertTrue(json, json.endsWith("\"phases\":{},\"counters\":{}}]}"));
+    }
+
+    @Test
+    public void testProcess_timingInvalid() throws Exception {
+        when(processingEnvironment.getOptions())
+                .thenReturn(Collections.singletonMap(ProcessorOptions.TIMING, "loud"));
+        fixture = new Fixture();
+        fixture.init(processingEnvironment);
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING,
+                "Option -Aannotationutils.timing must be off, log or json, not 'loud'; timing is off");
+        fixture.process(new HashSet<TypeElement>(), roundEnvironment);
+        // Only to see whether the compilation's model cache can be released
+        verify(roundEnvironment).processingOver();
+        verifyNoMoreInteractions(roundEnvironment);
+    }
+
     @Test
     public void testLogger() throws Exception {
         Logger logger = fixture.logger();
@@ -109,6 +213,31 @@ public class AbstractProcessorExtTest {
         assertSame(logger, fixture.logger());//Make sure it always returns the same one
     }
 
+    @Test
+    public void testLogger_options() throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put(ProcessorOptions.LOG_LEVEL, "Warning");
+        options.put(ProcessorOptions.LOG_BUFFERED, null);
+        when(processingEnvironment.getOptions()).thenReturn(options);
+        fixture = new Fixture();
+        fixture.init(processingEnvironment);
+
+        assertSame(Logger.Level.WARNING, fixture.logger().getThreshold());
+        assertTrue(fixture.logger().isBuffered());
+    }
+
+    @Test
+    public void testLogger_invalidLevel() throws Exception {
+        when(processingEnvironment.getOptions())
+                .thenReturn(Collections.singletonMap(ProcessorOptions.LOG_LEVEL, "loud"));
+        fixture = new Fixture();
+        fixture.init(processingEnvironment);
+
+        assertSame(Logger.Level.OTHER, fixture.logger().getThreshold());
+        verify(messager).printMessage(Diagnostic.Kind.WARNING,
+                "Option -Aannotationutils.log.level must be error, mandatory_warning, warning, note or other, not 'loud'; logging everything");
+    }
+
     @Test
     public void testUtilityGetters() {
         assertSame(types, fixture.types());
@@ -124,6 +253,8 @@ public class AbstractProcessorExtTest {
 
         private boolean result;
 
+        private List<String> fatals = Collections.emptyList();
+
         public Set<? extends TypeElement> annotations;
         public RoundEnvironment roundEnv;
 
@@ -142,6 +273,9 @@ public class AbstractProcessorExtTest {
             if (abort) {
                 throw new AbortProcessingException("message", null, null, null);
             }
+            for (String each : fatals) {
+                logger().fatal(each);
+            }
             this.annotations = annotations;
             this.roundEnv = roundEnv;
             return result;
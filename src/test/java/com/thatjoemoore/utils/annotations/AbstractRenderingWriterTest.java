@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thatjoemoore.utils.annotations;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AbstractRenderingWriterTest {
+
+    @Mock
+    private ProcessingEnvironment processingEnv;
+    @Mock
+    private RoundEnvironment roundEnv;
+    @Mock
+    private Filer filer;
+    @Mock
+    private Messager messager;
+
+    private ForkJoinPool workers;
+
+    @Before
+    public void setUp() throws Exception {
+        when(processingEnv.getFiler()).thenReturn(filer);
+        when(processingEnv.getMessager()).thenReturn(messager);
+        when(processingEnv.getOptions()).thenReturn(Collections.<String, String>emptyMap());
+        workers = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void testWrite_parallelMatchesSerial() throws Exception {
+        Fixture serial = fixture(null);
+        assertFalse(serial.write(200));
+
+        Fixture parallel = fixture(workers);
+        assertFalse(parallel.write(200));
+
+        assertEquals(200, parallel.committed.size());
+        assertEquals(serial.committed, parallel.committed);
+        assertEquals(Collections.singleton(Thread.currentThread()), parallel.committingThreads);
+        assertFalse(parallel.renderingThreads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testWrite_serialByDefault() throws Exception {
+        Fixture fixture = fixture(null);
+
+        assertFalse(fixture.write(20));
+
+        assertEquals(20, fixture.committed.size());
+        assertEquals(Collections.singleton(Thread.currentThread()), fixture.renderingThreads);
+    }
+
+    @Test
+    public void testWrite_renderFailure() throws Exception {
+        Fixture fixture = fixture(workers);
+        fixture.failAt = 7;
+        try {
+            fixture.write(20);
+            fail("Should have thrown AbortProcessingException");
+        } catch (AbstractProcessorExt.AbortProcessingException ex) {
+            assertEquals("cannot render 7", ex.getMessage());
+        }
+        assertEquals(7, fixture.committed.size());
+    }
+
+    @Test
+    public void testWriteSourceFile() throws Exception {
+        TypeElement origin = mock(TypeElement.class);
+        Name name = mock(Name.class);
+        when(origin.getQualifiedName()).thenReturn(name);
+        JavaFileObject file = mock(JavaFileObject.class);
+        StringWriter out = new StringWriter();
+        when(filer.createSourceFile("com.example.Gen", origin)).thenReturn(file);
+        when(file.openWriter()).thenReturn(out);
+
+        Fixture fixture = fixture(null);
+        fixture.writeSourceFile("com.example.Gen", "class Gen {}", origin);
+
+        assertEquals("class Gen {}", out.toString());
+    }
+
+    private Fixture fixture(ForkJoinPool workers) {
+        Fixture fixture = new Fixture();
+        fixture.init(processingEnv, roundEnv, new Logger(messager));
+        fixture.setWorkers(workers);
+        return fixture;
+    }
+
+    private static final class Fixture extends AbstractRenderingWriter<Integer, Integer> {
+        private final List<String> committed = new ArrayList<>();
+        private final Set<Thread> committingThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        private final Set<Thread> renderingThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        private volatile int failAt = -1;
+
+        @Override
+        protected List<Integer> plan(Integer count) {
+            List<Integer> units = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                units.add(i);
+            }
+            return units;
+        }
+
+        @Override
+        protected CharSequence render(Integer unit) {
+            renderingThreads.add(Thread.currentThread());
+            if (unit == failAt) {
+                throw new AbstractProcessorExt.AbortProcessingException("cannot render " + unit, null, null, null);
+            }
+            StringBuilder text = new StringBuilder("class Gen").append(unit).append(" {");
+            for (int i = 0; i < unit % 13; i++) {
+                text.append(" int f").append(i).append(';');
+            }
+            return text.append(" }");
+        }
+
+        @Override
+        protected void commit(Integer unit, CharSequence text) {
+            committingThreads.add(Thread.currentThread());
+            committed.add(text.toString());
+        }
+    }
+}
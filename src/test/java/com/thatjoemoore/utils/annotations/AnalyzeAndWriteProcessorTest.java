@@ -19,21 +19,45 @@ package com.thatjoemoore.utils.annotations;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
+import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -46,11 +70,15 @@ public class AnalyzeAndWriteProcessorTest {
     @Mock
     private AnalyzeAndWriteProcessor.Writer<Integer> writer;
     @Mock
+    private AnalyzeAndWriteProcessor.IncrementalAnalyzer<String, Integer> incrementalAnalyzer;
+    @Mock
     private ProcessingEnvironment processingEnv;
     @Mock
     private RoundEnvironment roundEnv;
     @Mock
     private Messager messager;
+    @Mock
+    private Elements elements;
 
     private Fixture fixture;
 
@@ -59,6 +87,8 @@ public class AnalyzeAndWriteProcessorTest {
         fixture = new Fixture(analyzer, writer);
         when(processingEnv.getMessager())
                 .thenReturn(messager);
+        when(processingEnv.getElementUtils())
+                .thenReturn(elements);
         fixture.init(processingEnv);
     }
 
@@ -85,9 +115,287 @@ public class AnalyzeAndWriteProcessorTest {
         verifyNoMoreInteractions(analyzer, writer);
     }
 
+    @Test
+    public void testProcess_timing() throws Exception {
+        Set<? extends TypeElement> set = new HashSet<TypeElement>();
+        when(processingEnv.getOptions())
+                .thenReturn(Collections.singletonMap(ProcessorOptions.TIMING, "log"));
+        fixture = new Fixture(analyzer, writer);
+        fixture.init(processingEnv);
+
+        //noinspection unchecked
+        when(analyzer.analyze(any(Set.class)))
+                .thenReturn(12);
+        doReturn(elements(typeElement("com.example.First"), typeElement("com.example.Second"))).when(roundEnv).getRootElements();
+
+        fixture.process(set, roundEnv);
+
+        ArgumentCaptor<CharSequence> message = ArgumentCaptor.forClass(CharSequence.class);
+        verify(messager).printMessage(same(Diagnostic.Kind.NOTE), message.capture(), any(Element.class),
+                any(AnnotationMirror.class), any(AnnotationValue.class));
+        String note = message.getValue().toString();
+        assertTrue(note, note.matches(".* Round 1: .* wall, .*analyze [0-9.]+ ms, write [0-9.]+ ms, rootElements 2"));
+    }
+
+    @Test
+    public void testProcess_incremental() throws Exception {
+        Set<? extends TypeElement> set = new HashSet<TypeElement>();
+        TypeElement first = typeElement("com.example.First");
+        TypeElement second = typeElement("com.example.Second");
+
+        fixture.incremental = incrementalAnalyzer;
+
+        when(incrementalAnalyzer.analyze(first)).thenReturn("first");
+        when(incrementalAnalyzer.analyze(second)).thenReturn("second");
+        final List<Map<String, String>> merged = new ArrayList<>();
+        final List<Set<String>> added = new ArrayList<>();
+        //noinspection unchecked
+        when(incrementalAnalyzer.merge(any(Map.class), any(Set.class))).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) throws Throwable {
+                //noinspection unchecked
+                merged.add(new LinkedHashMap<>((Map<String, String>) invocation.getArguments()[0]));
+                //noinspection unchecked
+                added.add(new LinkedHashSet<>((Set<String>) invocation.getArguments()[1]));
+                return merged.size();
+            }
+        });
+        when(writer.write(anyInt())).thenReturn(false);
+
+        doReturn(elements(first)).when(roundEnv).getRootElements();
+        assertFalse(fixture.process(set, roundEnv));
+
+        doReturn(elements(first, second)).when(roundEnv).getRootElements();
+        assertFalse(fixture.process(set, roundEnv));
+
+        verify(incrementalAnalyzer).analyze(first);
+        verify(incrementalAnalyzer).analyze(second);
+
+        Map<String, String> both = new LinkedHashMap<>();
+        both.put("com.example.First", "first");
+        both.put("com.example.Second", "second");
+        assertEquals(Arrays.asList(Collections.singletonMap("com.example.First", "first"), both), merged);
+        assertEquals(Arrays.asList(Collections.singleton("com.example.First"), Collections.singleton("com.example.Second")), added);
+
+        verify(writer).write(1);
+        verify(writer).write(2);
+        //noinspection unchecked
+        verify(analyzer, never()).analyze(any(Set.class));
+    }
+
+    @Test
+    public void testProcess_deferred() throws Exception {
+        Set<? extends TypeElement> set = new HashSet<TypeElement>();
+        TypeElement first = typeElement("com.example.First");
+        TypeElement second = typeElement("com.example.Second");
+
+        fixture.incremental = incrementalAnalyzer;
+        when(incrementalAnalyzer.analyze(first))
+                .thenThrow(new AnalyzeAndWriteProcessor.DeferElementException("Missing is not generated yet"))
+                .thenReturn("first");
+        when(incrementalAnalyzer.analyze(second)).thenReturn("second");
+        when(elements.getTypeElement("com.example.First")).thenReturn(first);
+
+        doReturn(elements(first, second)).when(roundEnv).getRootElements();
+        fixture.process(set, roundEnv);
+
+        doReturn(elements()).when(roundEnv).getRootElements();
+        when(roundEnv.processingOver()).thenReturn(true);
+        fixture.process(set, roundEnv);
+
+        verify(incrementalAnalyzer, times(2)).analyze(first);
+        verify(incrementalAnalyzer).analyze(second);
+        verify(messager, never()).printMessage(any(Diagnostic.Kind.class), any(CharSequence.class), any(Element.class),
+                any(AnnotationMirror.class), any(AnnotationValue.class));
+    }
+
+    @Test
+    public void testProcess_deferredUntilOver() throws Exception {
+        Set<? extends TypeElement> set = new HashSet<TypeElement>();
+        TypeElement first = typeElement("com.example.First");
+
+        fixture.incremental = incrementalAnalyzer;
+        when(incrementalAnalyzer.analyze(first))
+                .thenThrow(new AnalyzeAndWriteProcessor.DeferElementException("Missing cannot be resolved"));
+        when(elements.getTypeElement("com.example.First")).thenReturn(first);
+
+        doReturn(elements(first)).when(roundEnv).getRootElements();
+        fixture.process(set, roundEnv);
+        verify(messager, never()).printMessage(any(Diagnostic.Kind.class), any(CharSequence.class), any(Element.class),
+                any(AnnotationMirror.class), any(AnnotationValue.class));
+
+        doReturn(elements()).when(roundEnv).getRootElements();
+        when(roundEnv.processingOver()).thenReturn(true);
+        fixture.process(set, roundEnv);
+
+        verify(incrementalAnalyzer, times(2)).analyze(first);
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "Unable to analyze com.example.First: Missing cannot be resolved",
+                first, null, null);
+    }
+
+    @Test
+    public void testProcess_sharded() throws Exception {
+        Set<? extends TypeElement> set = new HashSet<TypeElement>();
+        final List<TypeSnapshot> roots = ShardedAnalysisTest.snapshots(10);
+
+        fixture.sharded = new AnalyzeAndWriteProcessor.ShardedAnalyzer<Integer, Integer>() {
+            @Override
+            public void init(ProcessingEnvironment processingEnv, RoundEnvironment roundEnv, Logger logger) {
+            }
+
+            @Override
+            public List<TypeSnapshot> capture(Set<? extends TypeElement> annotations) {
+                return roots;
+            }
+
+            @Override
+            public Integer analyze(List<TypeSnapshot> shard) {
+                return shard.size();
+            }
+
+            @Override
+            public Integer merge(List<Integer> partials) {
+                assertEquals(8, partials.size());
+                int total = 0;
+                for (Integer each : partials) {
+                    total += each;
+                }
+                return total;
+            }
+        };
+        when(processingEnv.getOptions()).thenReturn(Collections.singletonMap(ProcessorOptions.PARALLELISM, "2"));
+        when(writer.write(anyInt())).thenReturn(true);
+
+        assertTrue(fixture.process(set, roundEnv));
+
+        verify(writer).write(10);
+        //noinspection unchecked
+        verify(analyzer, never()).analyze(any(Set.class));
+    }
+
+    @Test
+    public void testProcess_shardedSerialByDefault() throws Exception {
+        Set<? extends TypeElement> set = new HashSet<TypeElement>();
+        final List<TypeSnapshot> roots = ShardedAnalysisTest.snapshots(10);
+        final Thread processor = Thread.currentThread();
+
+        fixture.sharded = new AbstractShardedAnalyzer<Integer, Integer>() {
+            @Override
+            public List<TypeSnapshot> capture(Set<? extends TypeElement> annotations) {
+                return roots;
+            }
+
+            @Override
+            public Integer analyze(List<TypeSnapshot> shard) {
+                assertSame(processor, Thread.currentThread());
+                return shard.size();
+            }
+
+            @Override
+            public Integer merge(List<Integer> partials) {
+                assertEquals(1, partials.size());
+                return partials.get(0);
+            }
+        };
+        when(writer.write(anyInt())).thenReturn(true);
+
+        assertTrue(fixture.process(set, roundEnv));
+
+        verify(writer).write(10);
+    }
+
+    @Test
+    public void testProcess_renderingSharesWorkers() throws Exception {
+        Set<? extends TypeElement> set = new HashSet<TypeElement>();
+        when(processingEnv.getOptions()).thenReturn(Collections.singletonMap(ProcessorOptions.PARALLELISM, "2"));
+        when(processingEnv.getFiler()).thenReturn(mock(Filer.class));
+        //noinspection unchecked
+        when(analyzer.analyze(any(Set.class))).thenReturn(20);
+        PoolRecordingWriter rendering = new PoolRecordingWriter();
+        Fixture fixture = new Fixture(analyzer, rendering);
+        fixture.init(processingEnv);
+
+        fixture.process(set, roundEnv);
+        fixture.process(set, roundEnv);
+        when(roundEnv.processingOver()).thenReturn(true);
+        fixture.process(set, roundEnv);
+
+        assertEquals(1, rendering.pools.size());
+        ForkJoinPool pool = rendering.pools.iterator().next();
+        assertNotNull(pool);
+        assertTrue(pool.isShutdown());
+    }
+
+    @Test
+    public void testProcess_renderingSerialByDefault() throws Exception {
+        Set<? extends TypeElement> set = new HashSet<TypeElement>();
+        when(processingEnv.getFiler()).thenReturn(mock(Filer.class));
+        //noinspection unchecked
+        when(analyzer.analyze(any(Set.class))).thenReturn(20);
+        PoolRecordingWriter rendering = new PoolRecordingWriter();
+        Fixture fixture = new Fixture(analyzer, rendering);
+        fixture.init(processingEnv);
+
+        fixture.process(set, roundEnv);
+
+        assertEquals(Collections.<ForkJoinPool>singleton(null), rendering.pools);
+    }
+
+    @Test
+    public void testProcess_noAnalyzer() throws Exception {
+        Fixture fixture = new Fixture(null, writer);
+        fixture.init(processingEnv);
+
+        try {
+            fixture.process(new HashSet<TypeElement>(), roundEnv);
+            fail("Should have thrown IllegalStateException");
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("returned no analyzer"));
+        }
+        verify(writer, never()).write(anyInt());
+    }
+
+    private static TypeElement typeElement(String qualifiedName) {
+        TypeElement element = mock(TypeElement.class);
+        Name name = mock(Name.class);
+        when(name.toString()).thenReturn(qualifiedName);
+        when(element.getQualifiedName()).thenReturn(name);
+        when(element.getKind()).thenReturn(ElementKind.CLASS);
+        return element;
+    }
+
+    private static Set<Element> elements(Element... elements) {
+        return new LinkedHashSet<>(Arrays.asList(elements));
+    }
+
+    private static final class PoolRecordingWriter extends AbstractRenderingWriter<Integer, Integer> {
+        private final Set<ForkJoinPool> pools = Collections.synchronizedSet(new HashSet<ForkJoinPool>());
+
+        @Override
+        protected List<Integer> plan(Integer count) {
+            List<Integer> units = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                units.add(i);
+            }
+            return units;
+        }
+
+        @Override
+        protected CharSequence render(Integer unit) {
+            pools.add(ForkJoinTask.getPool());
+            return unit.toString();
+        }
+
+        @Override
+        protected void commit(Integer unit, CharSequence text) {
+        }
+    }
+
     private static final class Fixture extends AnalyzeAndWriteProcessor<Integer> {
         private final Analyzer<Integer> analyzer;
         private final Writer<Integer> writer;
+        private IncrementalAnalyzer<String, Integer> incremental;
+        private ShardedAnalyzer<?, Integer> sharded;
 
         public Fixture(Analyzer<Integer> analyzer, Writer<Integer> writer) {
             this.analyzer = analyzer;
@@ -103,5 +411,15 @@ public class AnalyzeAndWriteProcessorTest {
         protected Writer<Integer> getWriter() {
             return writer;
         }
+
+        @Override
+        protected IncrementalAnalyzer<?, Integer> getIncrementalAnalyzer() {
+            return incremental;
+        }
+
+        @Override
+        protected ShardedAnalyzer<?, Integer> getShardedAnalyzer() {
+            return sharded;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.thatjoemoore.utils.annotations.test.Analysis;
+import com.thatjoemoore.utils.annotations.test.InMemoryCompiler;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class AnnotationValuesTest {
+
+    private Elements elements;
+    private AnnotationMirror mirror;
+
+    @Before
+    public void setUp() throws Exception {
+        elements = Analysis.analyze(Arrays.asList(
+                InMemoryCompiler.source("a.Ann", "package a;\n"
+                        + "import java.lang.annotation.RetentionPolicy;\n"
+                        + "public @interface Ann {\n"
+                        + "    boolean flag() default true;\n"
+                        + "    byte b() default 1;\n"
+                        + "    short s() default 2;\n"
+                        + "    int i() default 3;\n"
+                        + "    long l() default 4;\n"
+                        + "    char c() default 'c';\n"
+                        + "    float f() default 5;\n"
+                        + "    double d() default 6;\n"
+                        + "    String string() default \"text\";\n"
+                        + "    Class<?> type() default String.class;\n"
+                        + "    RetentionPolicy policy() default RetentionPolicy.SOURCE;\n"
+                        + "    Deprecated nested() default @Deprecated;\n"
+                        + "    int[] ints() default {1, 2, 3};\n"
+                        + "    long[] longs() default 7;\n"
+                        + "    String[] strings() default {};\n"
+                        + "    Class<?>[] types() default {String.class, int.class};\n"
+                        + "    RetentionPolicy[] policies() default {RetentionPolicy.CLASS};\n"
+                        + "    Deprecated[] nesteds() default {@Deprecated, @Deprecated};\n"
+                        + "    boolean[] flags() default {true, false};\n"
+                        + "    char[] chars() default {'x', 'y'};\n"
+                        + "    double[] doubles() default {1.5};\n"
+                        + "}"),
+                InMemoryCompiler.source("a.Used", "package a; @Ann public class Used {}"))).getElements();
+        mirror = elements.getTypeElement("a.Used").getAnnotationMirrors().get(0);
+    }
+
+    @Test
+    public void testScalars() throws Exception {
+        assertTrue(AnnotationValues.booleanValue(value("flag")));
+        assertEquals(1, AnnotationValues.byteValue(value("b")));
+        assertEquals(2, AnnotationValues.shortValue(value("s")));
+        assertEquals(3, AnnotationValues.intValue(value("i")));
+        assertEquals(4L, AnnotationValues.longValue(value("l")));
+        assertEquals('c', AnnotationValues.charValue(value("c")));
+        assertEquals(5f, AnnotationValues.floatValue(value("f")), 0);
+        assertEquals(6d, AnnotationValues.doubleValue(value("d")), 0);
+        assertEquals("text", AnnotationValues.stringValue(value("string")));
+        assertEquals("java.lang.String", AnnotationValues.typeValue(value("type")).toString());
+        assertEquals("SOURCE", AnnotationValues.enumValue(value("policy")).getSimpleName().toString());
+        assertEquals("java.lang.Deprecated", AnnotationValues.annotationMirror(value("nested")).getAnnotationType().toString());
+    }
+
+    @Test
+    public void testArrays() throws Exception {
+        assertArrayEquals(new int[]{1, 2, 3}, AnnotationValues.intArray(value("ints")));
+        assertArrayEquals(new long[]{7}, AnnotationValues.longArray(value("longs")));
+        assertArrayEquals(new String[0], AnnotationValues.stringArray(value("strings")));
+        assertArrayEquals(new boolean[]{true, false}, AnnotationValues.booleanArray(value("flags")));
+        assertArrayEquals(new char[]{'x', 'y'}, AnnotationValues.charArray(value("chars")));
+        assertArrayEquals(new double[]{1.5}, AnnotationValues.doubleArray(value("doubles")), 0);
+
+        TypeMirror[] types = AnnotationValues.typeArray(value("types"));
+        assertEquals(2, types.length);
+        assertEquals("java.lang.String", types[0].toString());
+        assertEquals("int", types[1].toString());
+
+        VariableElement[] policies = AnnotationValues.enumArray(value("policies"));
+        assertEquals(1, policies.length);
+        assertEquals("CLASS", policies[0].getSimpleName().toString());
+
+        assertEquals(2, AnnotationValues.annotationArray(value("nesteds")).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testScalar_wrongType() throws Exception {
+        AnnotationValues.intValue(value("l"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testScalar_array() throws Exception {
+        AnnotationValues.intValue(value("ints"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArray_wrongType() throws Exception {
+        AnnotationValues.longArray(value("ints"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArray_notArray() throws Exception {
+        AnnotationValues.intArray(value("i"));
+    }
+
+    private AnnotationValue value(String name) {
+        return ElementsExt.annotationValue(mirror, name, elements);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.thatjoemoore.utils.annotations.test.Analysis;
+import com.thatjoemoore.utils.annotations.test.InMemoryCompiler;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.MirroredTypesException;
+import javax.lang.model.util.Elements;
+import java.io.File;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AnnotationViewTest {
+
+    /**
+     * The annotation viewed.
+     */
+    public @interface Sample {
+        String name();
+
+        int number() default 1;
+
+        long[] longs() default {1, 2};
+
+        Class<?> type() default String.class;
+
+        Class<?>[] types() default {};
+
+        RetentionPolicy policy() default RetentionPolicy.CLASS;
+
+        ElementType[] elementTypes() default {};
+
+        Target nested() default @Target({});
+
+        Target[] nesteds() default {};
+    }
+
+    private Elements elements;
+    private AnnotationMirror mirror;
+
+    @Before
+    public void setUp() throws Exception {
+        String classes = new File(Sample.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        elements = Analysis.analyze(Arrays.asList("-classpath", classes), Collections.singletonList(
+                InMemoryCompiler.source("a.Used", "package a;\n"
+                        + "import java.lang.annotation.*;\n"
+                        + "@com.thatjoemoore.utils.annotations.AnnotationViewTest.Sample(name = \"used\", number = 42,\n"
+                        + "        types = {Integer.class, Long.class}, policy = RetentionPolicy.RUNTIME,\n"
+                        + "        elementTypes = {ElementType.TYPE, ElementType.FIELD},\n"
+                        + "        nesteds = {@Target(ElementType.METHOD), @Target({})})\n"
+                        + "public class Used {}"))).getElements();
+        mirror = elements.getTypeElement("a.Used").getAnnotationMirrors().get(0);
+    }
+
+    @Test
+    public void testValues() throws Exception {
+        Sample view = ElementsExt.view(mirror, Sample.class, elements);
+
+        assertEquals("used", view.name());
+        assertEquals(42, view.number());
+        assertArrayEquals(new long[]{1, 2}, view.longs());
+        assertSame(RetentionPolicy.RUNTIME, view.policy());
+        assertArrayEquals(new ElementType[]{ElementType.TYPE, ElementType.FIELD}, view.elementTypes());
+        assertEquals(0, view.nested().value().length);
+        assertEquals(2, view.nesteds().length);
+        assertArrayEquals(new ElementType[]{ElementType.METHOD}, view.nesteds()[0].value());
+        assertSame(Sample.class, view.annotationType());
+    }
+
+    @Test
+    public void testTypes() throws Exception {
+        Sample view = ElementsExt.view(mirror, Sample.class, elements);
+        AnnotationView annotationView = (AnnotationView) view;
+
+        assertEquals("java.lang.String", annotationView.typeMirror("type").toString());
+        assertEquals(2, annotationView.typeMirrors("types").size());
+        assertEquals("java.lang.Long", annotationView.typeMirrors("types").get(1).toString());
+        try {
+            view.type();
+            fail("Should have thrown exception");
+        } catch (MirroredTypeException ex) {
+            assertEquals("java.lang.String", ex.getTypeMirror().toString());
+        }
+        try {
+            view.types();
+            fail("Should have thrown exception");
+        } catch (MirroredTypesException ex) {
+            assertEquals(2, ex.getTypeMirrors().size());
+        }
+    }
+
+    @Test
+    public void testTypes_newExceptionEachCall() throws Exception {
+        Sample view = ElementsExt.view(mirror, Sample.class, elements);
+
+        assertNotSame(thrownByType(view), thrownByType(view));
+        assertNotSame(thrownByTypes(view), thrownByTypes(view));
+    }
+
+    private static MirroredTypeException thrownByType(Sample view) {
+        try {
+            view.type();
+        } catch (MirroredTypeException ex) {
+            return ex;
+        }
+        throw new AssertionError("Should have thrown exception");
+    }
+
+    private static MirroredTypesException thrownByTypes(Sample view) {
+        try {
+            view.types();
+        } catch (MirroredTypesException ex) {
+            return ex;
+        }
+        throw new AssertionError("Should have thrown exception");
+    }
+
+    @Test
+    public void testCached() throws Exception {
+        Sample view = ElementsExt.view(mirror, Sample.class, elements);
+
+        assertSame(view, ElementsExt.view(mirror, Sample.class, elements));
+        assertSame(mirror, ((AnnotationView) view).getAnnotationMirror());
+        assertSame(view.nested(), view.nested());
+    }
+
+    @Test
+    public void testNewRound() throws Exception {
+        Sample view = ElementsExt.view(mirror, Sample.class, elements);
+        RoundEnvironment roundEnv = mock(RoundEnvironment.class);
+        doReturn(Collections.emptySet()).when(roundEnv).getRootElements();
+
+        ElementsExt.newRound(roundEnv, elements);
+
+        Sample next = ElementsExt.view(mirror, Sample.class, elements);
+        assertNotSame(view, next);
+        assertEquals(view, next);
+    }
+
+    @Test
+    public void testUnexpectedMethod() throws Throwable {
+        Sample view = ElementsExt.view(mirror, Sample.class, elements);
+        Method method = Object.class.getMethod("notify");
+
+        try {
+            Proxy.getInvocationHandler(view).invoke(view, method, null);
+            fail("Should have thrown error");
+        } catch (AssertionError ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains(method.toString()));
+        }
+    }
+
+    @Test
+    public void testArraysCopied() throws Exception {
+        Sample view = ElementsExt.view(mirror, Sample.class, elements);
+
+        view.longs()[0] = 99;
+
+        assertArrayEquals(new long[]{1, 2}, view.longs());
+    }
+
+    @Test
+    public void testNull() throws Exception {
+        assertNull(ElementsExt.view(null, Sample.class, elements));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongType() throws Exception {
+        ElementsExt.view(mirror, Deprecated.class, elements);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypeMirror_missing() throws Exception {
+        ((AnnotationView) ElementsExt.view(mirror, Sample.class, elements)).typeMirror("missing");
+    }
+}
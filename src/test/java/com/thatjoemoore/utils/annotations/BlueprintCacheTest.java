@@ -0,0 +1,243 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thatjoemoore.utils.annotations;
+
+import com.thatjoemoore.utils.annotations.test.Analysis;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+
+import java.io.File;
+import java.io.InvalidClassException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BlueprintCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final ClassLoader LOADER = BlueprintCacheTest.class.getClassLoader();
+
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = folder.getRoot().toPath().resolve("cache").resolve("test.cache");
+    }
+
+    @Test
+    public void testSaveAndReopen() throws Exception {
+        BlueprintCache cache = BlueprintCache.open(file, 1024 * 1024);
+        assertNull(cache.getLoadProblem());
+        cache.put("com.example.A", fingerprint(1), bytes("a"));
+        cache.put("com.example.B", fingerprint(2), new byte[0]);
+        cache.save();
+
+        BlueprintCache reopened = BlueprintCache.open(file, 1024 * 1024);
+        assertNull(reopened.getLoadProblem());
+        assertArrayEquals(bytes("a"), reopened.get("com.example.A", fingerprint(1)));
+        assertArrayEquals(new byte[0], reopened.get("com.example.B", fingerprint(2)));
+        assertNull(reopened.get("com.example.C", fingerprint(1)));
+    }
+
+    @Test
+    public void testGet_fingerprintMismatch() throws Exception {
+        BlueprintCache cache = BlueprintCache.open(file, 1024 * 1024);
+        cache.put("com.example.A", fingerprint(1), bytes("a"));
+        cache.save();
+
+        assertNull(BlueprintCache.open(file, 1024 * 1024).get("com.example.A", fingerprint(9)));
+    }
+
+    @Test
+    public void testSave_evictsLeastRecentlyUsed() throws Exception {
+        BlueprintCache cache = BlueprintCache.open(file, 1024 * 1024);
+        cache.put("com.example.Old", fingerprint(1), new byte[100]);
+        cache.put("com.example.Used", fingerprint(2), new byte[100]);
+        cache.save();
+
+        // Second build only touches one entry, and adds another, with only room for two
+        cache = BlueprintCache.open(file, 400);
+        assertNotNull(cache.get("com.example.Used", fingerprint(2)));
+        cache.put("com.example.New", fingerprint(3), new byte[100]);
+        cache.save();
+
+        BlueprintCache reopened = BlueprintCache.open(file, 400);
+        assertNull(reopened.get("com.example.Old", fingerprint(1)));
+        assertNotNull(reopened.get("com.example.Used", fingerprint(2)));
+        assertNotNull(reopened.get("com.example.New", fingerprint(3)));
+    }
+
+    @Test
+    public void testOpen_corruptIndex() throws Exception {
+        BlueprintCache cache = BlueprintCache.open(file, 1024 * 1024);
+        cache.put("com.example.A", fingerprint(1), bytes("a"));
+        cache.save();
+
+        byte[] contents = Files.readAllBytes(file);
+        contents[22] ^= 0x7F;
+        Files.write(file, contents);
+
+        BlueprintCache reopened = BlueprintCache.open(file, 1024 * 1024);
+        assertNotNull(reopened.getLoadProblem());
+        assertNull(reopened.get("com.example.A", fingerprint(1)));
+    }
+
+    @Test
+    public void testGet_corruptPayload() throws Exception {
+        BlueprintCache cache = BlueprintCache.open(file, 1024 * 1024);
+        cache.put("com.example.A", fingerprint(1), bytes("payload"));
+        cache.save();
+
+        byte[] contents = Files.readAllBytes(file);
+        contents[contents.length - 1] ^= 0x7F;
+        Files.write(file, contents);
+
+        BlueprintCache reopened = BlueprintCache.open(file, 1024 * 1024);
+        assertNull(reopened.getLoadProblem());
+        assertNull(reopened.get("com.example.A", fingerprint(1)));
+    }
+
+    @Test
+    public void testOpen_notACacheFile() throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes("garbage"));
+
+        BlueprintCache cache = BlueprintCache.open(file, 1024 * 1024);
+        assertNotNull(cache.getLoadProblem());
+        cache.put("com.example.A", fingerprint(1), bytes("a"));
+        cache.save();
+        assertNull(BlueprintCache.open(file, 1024 * 1024).getLoadProblem());
+    }
+
+    @Test
+    public void testFingerprint() throws Exception {
+        TypeSnapshot snapshot = ShardedAnalysisTest.snapshots(1).get(0);
+        TypeSnapshot same = ShardedAnalysisTest.snapshots(1).get(0);
+        TypeSnapshot changed = new TypeSnapshot(snapshot.getQualifiedName(), snapshot.getBinaryName(),
+                snapshot.getSimpleName(), ElementKind.CLASS, EnumSet.of(Modifier.PUBLIC, Modifier.FINAL),
+                snapshot.getTypeParameters(), snapshot.getSuperclass(), snapshot.getInterfaces(), snapshot.getAnnotations(),
+                snapshot.getMembers(), Collections.<TypeSnapshot>emptyList());
+
+        assertArrayEquals(BlueprintCache.fingerprint(snapshot, "1"), BlueprintCache.fingerprint(same, "1"));
+        assertFalse(Arrays.equals(BlueprintCache.fingerprint(snapshot, "1"), BlueprintCache.fingerprint(changed, "1")));
+        assertFalse(Arrays.equals(BlueprintCache.fingerprint(snapshot, "1"), BlueprintCache.fingerprint(snapshot, "2")));
+    }
+
+    @Test
+    public void testFingerprint_signatures() throws Exception {
+        assertArrayEquals(fingerprintOf("class Foo<T extends Number> {}"), fingerprintOf("class Foo<T extends Number> {}"));
+        assertFalse(Arrays.equals(fingerprintOf("class Foo<T extends Number> {}"),
+                fingerprintOf("class Foo<T extends CharSequence> {}")));
+        assertFalse(Arrays.equals(fingerprintOf("class Foo { void m() throws java.io.IOException {} }"),
+                fingerprintOf("class Foo { void m() {} }")));
+        assertFalse(Arrays.equals(fingerprintOf("class Foo { <T extends Number> T m() { return null; } }"),
+                fingerprintOf("class Foo { <T extends String> T m() { return null; } }")));
+        assertFalse(Arrays.equals(fingerprintOf("class Foo { void m(String... args) {} }"),
+                fingerprintOf("class Foo { void m(String[] args) {} }")));
+    }
+
+    @Test
+    public void testSave_overOpenedFile() throws Exception {
+        BlueprintCache cache = BlueprintCache.open(file, 1024 * 1024);
+        cache.put("com.example.A", fingerprint(1), bytes("a"));
+        cache.put("com.example.B", fingerprint(2), bytes("b"));
+        cache.save();
+
+        // Replaces the file this cache was read from, including the entry it never copied out
+        BlueprintCache reopened = BlueprintCache.open(file, 1024 * 1024);
+        assertArrayEquals(bytes("a"), reopened.get("com.example.A", fingerprint(1)));
+        reopened.put("com.example.C", fingerprint(3), bytes("c"));
+        reopened.save();
+        Files.delete(file);
+        reopened.save();
+
+        BlueprintCache third = BlueprintCache.open(file, 1024 * 1024);
+        assertNull(third.getLoadProblem());
+        assertArrayEquals(bytes("b"), third.get("com.example.B", fingerprint(2)));
+        assertArrayEquals(bytes("c"), third.get("com.example.C", fingerprint(3)));
+    }
+
+    @Test
+    public void testDeserialize() throws Exception {
+        List<TypeSnapshot> snapshots = new ArrayList<>(ShardedAnalysisTest.snapshots(3));
+        Map<String, Object> fragment = new HashMap<>();
+        fragment.put("snapshots", snapshots);
+        fragment.put("count", 3);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> copy = BlueprintCache.deserialize(BlueprintCache.serialize(fragment), Map.class, LOADER);
+        assertEquals(fragment, copy);
+        assertNull(BlueprintCache.deserialize(BlueprintCache.serialize(null), Map.class, LOADER));
+    }
+
+    @Test
+    public void testDeserialize_disallowedClass() throws Exception {
+        byte[] payload = BlueprintCache.serialize(new ArrayList<>(Collections.singletonList(new File("x"))));
+        try {
+            BlueprintCache.deserialize(payload, List.class, LOADER);
+            fail("Should have thrown InvalidClassException");
+        } catch (InvalidClassException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("java.io.File;"));
+        }
+    }
+
+    @Test
+    public void testDeserialize_wrongType() throws Exception {
+        byte[] payload = BlueprintCache.serialize("text");
+        try {
+            BlueprintCache.deserialize(payload, Integer.class, LOADER);
+            fail("Should have thrown InvalidClassException");
+        } catch (InvalidClassException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("not a java.lang.Integer"));
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the class Foo declared by {@code code}, analyzed on its own.
+     */
+    private static byte[] fingerprintOf(String code) {
+        Analysis analysis = Analysis.analyze(Collections.singletonList(Analysis.source("a.Foo", "package a; " + code)));
+        assertEquals(analysis.getDiagnostics().toString(), 0, analysis.getDiagnostics().size());
+        return BlueprintCache.fingerprint(TypeSnapshot.of(analysis.getType("a.Foo"), analysis.getElements()), "1");
+    }
+
+    private static byte[] fingerprint(int seed) {
+        byte[] result = new byte[16];
+        result[0] = (byte) seed;
+        return result;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
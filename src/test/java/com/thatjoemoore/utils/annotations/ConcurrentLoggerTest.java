@@ -0,0 +1,255 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.tools.Diagnostic;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConcurrentLoggerTest {
+
+    @Mock
+    private Messager messager;
+
+    @Mock
+    private Element element;
+
+    @Mock
+    private AnnotationMirror annotationMirror;
+
+    private ConcurrentLogger logger;
+
+    @Before
+    public void setUp() throws Exception {
+        logger = new ConcurrentLogger(messager);
+    }
+
+    @Test
+    public void testOwner_printsImmediately() throws Exception {
+        assertTrue(logger.isOwner());
+
+        logger.warning("test", element);
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "test", element, null, null);
+    }
+
+    @Test
+    public void testWorker_queuedUntilDrain() throws Exception {
+        onWorker(new Runnable() {
+            @Override
+            public void run() {
+                assertFalse(logger.isOwner());
+                logger.warning("first");
+                logger.note("second");
+                logger.errorf(null, "third %d", 3);
+            }
+        });
+        verifyZeroInteractions(messager);
+
+        logger.drain();
+
+        InOrder inOrder = inOrder(messager);
+        inOrder.verify(messager).printMessage(Diagnostic.Kind.WARNING, "first", null, null, null);
+        inOrder.verify(messager).printMessage(Diagnostic.Kind.NOTE, "second", null, null, null);
+        inOrder.verify(messager).printMessage(Diagnostic.Kind.ERROR, "third 3", null, null, null);
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testWorker_printedBeforeOwnerMessage() throws Exception {
+        onWorker(new Runnable() {
+            @Override
+            public void run() {
+                logger.note("worker");
+            }
+        });
+
+        logger.note("owner");
+
+        InOrder inOrder = inOrder(messager);
+        inOrder.verify(messager).printMessage(Diagnostic.Kind.NOTE, "worker", null, null, null);
+        inOrder.verify(messager).printMessage(Diagnostic.Kind.NOTE, "owner", null, null, null);
+    }
+
+    @Test
+    public void testWorker_belowThresholdNotQueued() throws Exception {
+        logger = new ConcurrentLogger(messager, false, Logger.Level.WARNING);
+        onWorker(new Runnable() {
+            @Override
+            public void run() {
+                logger.note("dropped");
+            }
+        });
+
+        logger.endRound();
+
+        verifyZeroInteractions(messager);
+    }
+
+    @Test
+    public void testWorker_annotationClassResolvedOnDrain() throws Exception {
+        stubAnnotationMirror();
+
+        onWorker(new Runnable() {
+            @Override
+            public void run() {
+                logger.warning("test", element, Override.class);
+            }
+        });
+        verifyZeroInteractions(element);
+
+        logger.flush();
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "test", element, annotationMirror, null);
+    }
+
+    @Test
+    public void testWorker_fatalRethrownOnDrain() throws Exception {
+        final AtomicReference<AbstractProcessorExt.AbortProcessingException> thrown = new AtomicReference<>();
+        onWorker(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    logger.fatal("boom");
+                } catch (AbstractProcessorExt.AbortProcessingException ex) {
+                    thrown.set(ex);
+                }
+            }
+        });
+        assertNotNull(thrown.get());
+
+        try {
+            logger.drain();
+            fail("Should have thrown exception");
+        } catch (AbstractProcessorExt.AbortProcessingException ex) {
+            assertSame(thrown.get(), ex);
+        }
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "boom", null, null, null);
+
+        logger.drain();
+    }
+
+    @Test
+    public void testWorker_fatalWithAnnotationClass() throws Exception {
+        stubAnnotationMirror();
+        final AtomicReference<AbstractProcessorExt.AbortProcessingException> thrown = new AtomicReference<>();
+        onWorker(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    logger.fatal("boom", element, Override.class);
+                } catch (AbstractProcessorExt.AbortProcessingException ex) {
+                    thrown.set(ex);
+                }
+            }
+        });
+        assertNotNull(thrown.get());
+        verifyZeroInteractions(element, messager);
+
+        try {
+            logger.drain();
+            fail("Should have thrown exception");
+        } catch (AbstractProcessorExt.AbortProcessingException ex) {
+            assertSame(thrown.get(), ex);
+        }
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "boom", element, annotationMirror, null);
+    }
+
+    @Test
+    public void testDrainQuietly_forgetsFatal() throws Exception {
+        onWorker(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    logger.fatal("boom");
+                } catch (AbstractProcessorExt.AbortProcessingException ignored) {
+                }
+            }
+        });
+
+        logger.drainQuietly();
+        logger.drain();
+
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "boom", null, null, null);
+    }
+
+    @Test
+    public void testDrain_offOwner() throws Exception {
+        final AtomicReference<RuntimeException> thrown = new AtomicReference<>();
+        onWorker(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    logger.flush();
+                } catch (RuntimeException ex) {
+                    thrown.set(ex);
+                }
+            }
+        });
+
+        assertTrue(thrown.get() instanceof IllegalStateException);
+    }
+
+    /**
+     * Makes {@link #element} carry {@link #annotationMirror}, as an annotation of any type.
+     */
+    private void stubAnnotationMirror() {
+        TypeElement typeElement = mock(TypeElement.class);
+        DeclaredType annotType = mock(DeclaredType.class);
+        Name name = mock(Name.class);
+        doReturn(Collections.singletonList(annotationMirror)).when(element).getAnnotationMirrors();
+        when(annotationMirror.getAnnotationType()).thenReturn(annotType);
+        when(annotType.asElement()).thenReturn(typeElement);
+        when(typeElement.getQualifiedName()).thenReturn(name);
+        when(name.contentEquals(anyString())).thenReturn(true);
+        //noinspection unchecked
+        when(typeElement.accept((ElementVisitor<TypeElement, Void>) Mockito.notNull(), any(Void.class)))
+                .thenReturn(typeElement);
+    }
+
+    private static void onWorker(Runnable runnable) throws InterruptedException {
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread worker = new Thread(runnable, "worker");
+        worker.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread t, Throwable e) {
+                failure.set(e);
+            }
+        });
+        worker.start();
+        worker.join();
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DiagnosticReportTest {
+
+    @Mock
+    private Filer filer;
+    @Mock
+    private Messager messager;
+    @Mock
+    private FileObject file;
+    @Mock
+    private TypeElement type;
+    @Mock
+    private Element method;
+    @Mock
+    private AnnotationMirror annotation;
+    @Mock
+    private AnnotationValue value;
+
+    private StringWriter written;
+
+    @Before
+    public void setUp() throws Exception {
+        written = new StringWriter();
+        when(file.openWriter()).thenReturn(written);
+
+        Name typeName = mock(Name.class);
+        when(typeName.toString()).thenReturn("com.example.Foo");
+        when(type.getQualifiedName()).thenReturn(typeName);
+        when(type.getKind()).thenReturn(ElementKind.CLASS);
+
+        Name methodName = mock(Name.class);
+        when(methodName.toString()).thenReturn("bar");
+        when(method.getSimpleName()).thenReturn(methodName);
+        when(method.getEnclosingElement()).thenReturn(type);
+        when(method.getKind()).thenReturn(ElementKind.METHOD);
+
+        DeclaredType annotationType = mock(DeclaredType.class);
+        when(annotationType.toString()).thenReturn("com.example.Gen");
+        when(annotation.getAnnotationType()).thenReturn(annotationType);
+        when(value.toString()).thenReturn("\"x\"");
+    }
+
+    private DiagnosticReport report(DiagnosticReport.Format format) throws IOException {
+        DiagnosticReport report = new DiagnosticReport(filer, messager, format, "com.example.Processor");
+        when(filer.createResource(StandardLocation.SOURCE_OUTPUT, "", report.path())).thenReturn(file);
+        return report;
+    }
+
+    @Test
+    public void testJsonLines() throws Exception {
+        DiagnosticReport report = report(DiagnosticReport.Format.JSONL);
+        assertEquals("annotationutils-diagnostics/com.example.Processor.jsonl", report.path());
+
+        report.record(Logger.Level.WARNING, "first \"one\"", type, annotation, value);
+        report.record(Logger.Level.NOTE, "second", method, null, null);
+        report.record(Logger.Level.OTHER, "third", null, null, null);
+        report.close();
+
+        assertEquals(""
+                + "{\"level\":\"warning\",\"message\":\"first \\\"one\\\"\",\"element\":\"com.example.Foo\",\"annotation\":\"com.example.Gen\",\"value\":\"\\\"x\\\"\"}\n"
+                + "{\"level\":\"note\",\"message\":\"second\",\"element\":\"com.example.Foo#bar\",\"annotation\":null,\"value\":null}\n"
+                + "{\"level\":\"other\",\"message\":\"third\",\"element\":null,\"annotation\":null,\"value\":null}\n",
+                written.toString());
+        verify(filer, times(1)).createResource(StandardLocation.SOURCE_OUTPUT, "", report.path());
+    }
+
+    @Test
+    public void testSarif() throws Exception {
+        DiagnosticReport report = report(DiagnosticReport.Format.SARIF);
+
+        report.record(Logger.Level.FATAL, "first", method, annotation, value);
+        report.record(Logger.Level.MANDATORY_WARNING, "second", null, null, null);
+        report.close();
+
+        assertEquals("{\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\",\"version\":\"2.1.0\","
+                + "\"runs\":[{\"tool\":{\"driver\":{\"name\":\"com.example.Processor\"}},\"results\":["
+                + "{\"ruleId\":\"fatal\",\"level\":\"error\",\"message\":{\"text\":\"first\"},"
+                + "\"locations\":[{\"logicalLocations\":[{\"fullyQualifiedName\":\"com.example.Foo#bar\",\"kind\":\"function\"}]}],"
+                + "\"properties\":{\"annotation\":\"com.example.Gen\",\"value\":\"\\\"x\\\"\"}},"
+                + "{\"ruleId\":\"mandatory_warning\",\"level\":\"warning\",\"message\":{\"text\":\"second\"}}"
+                + "]}]}", written.toString());
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        report(DiagnosticReport.Format.SARIF).close();
+
+        assertTrue(written.toString(), written.toString().endsWith("\"results\":[]}]}"));
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        DiagnosticReport report = report(DiagnosticReport.Format.JSONL);
+        when(filer.createResource(StandardLocation.SOURCE_OUTPUT, "", report.path())).thenThrow(new IOException("disk full"));
+
+        report.record(Logger.Level.WARNING, "first", null, null, null);
+        report.record(Logger.Level.WARNING, "second", null, null, null);
+        report.flush();
+        report.close();
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING,
+                "Unable to write diagnostics report annotationutils-diagnostics/com.example.Processor.jsonl: disk full");
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testLogger() throws Exception {
+        DiagnosticReport report = report(DiagnosticReport.Format.JSONL);
+        Logger logger = new Logger(messager, false, Logger.Level.WARNING);
+        logger.setLimits(1, 0, 0);
+        logger.setReport(report);
+
+        logger.warning("printed", type);
+        logger.warning("suppressed", type);
+        logger.note("disabled", type);
+        logger.endRound();
+        report.close();
+
+        String[] lines = written.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0], lines[0].contains("\"message\":\"printed\""));
+        assertTrue(lines[1], lines[1].contains("\"message\":\"suppressed\""));
+        verify(messager, never()).printMessage(eq(Diagnostic.Kind.NOTE), eq("disabled"), any(Element.class),
+                any(AnnotationMirror.class), any(AnnotationValue.class));
+    }
+
+    @Test
+    public void testName() throws Exception {
+        assertEquals("com.example.Foo", DiagnosticReport.name(type));
+        assertEquals("com.example.Foo#bar", DiagnosticReport.name(method));
+        Element orphan = mock(Element.class);
+        Name orphanName = mock(Name.class);
+        when(orphanName.toString()).thenReturn("orphan");
+        when(orphan.getSimpleName()).thenReturn(orphanName);
+        assertEquals("orphan", DiagnosticReport.name(orphan));
+        verify(messager, never()).printMessage(any(Diagnostic.Kind.class), anyString());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.thatjoemoore.utils.annotations.test.Analysis;
+import com.thatjoemoore.utils.annotations.test.InMemoryCompiler;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ElementQueryTest {
+
+    private TypeElement type;
+
+    @Before
+    public void setUp() throws Exception {
+        type = Analysis.analyze(Collections.singletonList(
+                InMemoryCompiler.source("q.Members", "package q;\n"
+                        + "public class Members {\n"
+                        + "    public static final int A = 1;\n"
+                        + "    private int b;\n"
+                        + "    public Members() {}\n"
+                        + "    Members(int x) {}\n"
+                        + "    @Deprecated public void one() {}\n"
+                        + "    public static void two() {}\n"
+                        + "    @Deprecated @SuppressWarnings(\"all\") private void three() {}\n"
+                        + "    public class Inner {}\n"
+                        + "}"))).getType("q.Members");
+    }
+
+    @Test
+    public void testKinds() throws Exception {
+        assertEquals(Arrays.asList("one", "two", "three"), names(ElementsExt.members(type).methods()));
+        assertEquals(Arrays.asList("A", "b"), names(ElementsExt.members(type).fields()));
+        assertEquals(2, ElementsExt.members(type).constructors().count());
+        assertEquals(Collections.singletonList("Inner"), names(ElementsExt.members(type).types()));
+        assertEquals(Arrays.asList("A", "b", "one", "two", "three"),
+                names(ElementsExt.members(type).ofKind(ElementKind.FIELD, ElementKind.METHOD)));
+        assertTrue(ElementsExt.members(type).methods().fields().none());
+    }
+
+    @Test
+    public void testModifiers() throws Exception {
+        assertEquals(Arrays.asList("one", "two"), names(ElementsExt.members(type).methods().withModifiers(Modifier.PUBLIC)));
+        assertEquals(Collections.singletonList("two"),
+                names(ElementsExt.members(type).methods().withModifiers(Modifier.PUBLIC, Modifier.STATIC)));
+        assertEquals(Arrays.asList("b", "one", "three"),
+                names(ElementsExt.members(type).withoutModifiers(Modifier.STATIC).withoutModifiers(Modifier.FINAL)
+                        .ofKind(ElementKind.FIELD, ElementKind.METHOD)));
+    }
+
+    @Test
+    public void testAnnotatedWith() throws Exception {
+        assertEquals(Arrays.asList("one", "three"), names(ElementsExt.members(type).annotatedWith(Deprecated.class)));
+        assertEquals(Collections.singletonList("three"),
+                names(ElementsExt.members(type).annotatedWith(Deprecated.class).annotatedWith(SuppressWarnings.class)));
+        ExecutableElement first = ElementsExt.members(type).methods().withModifiers(Modifier.PUBLIC)
+                .annotatedWith(Deprecated.class).first();
+        assertEquals("one", first.getSimpleName().toString());
+    }
+
+    @Test
+    public void testNamed() throws Exception {
+        assertEquals("two", ElementsExt.members(type).named("two").first().getSimpleName().toString());
+        assertNull(ElementsExt.members(type).fields().named("two").first());
+    }
+
+    @Test
+    public void testShortCircuits() throws Exception {
+        Element match = mock(Element.class);
+        when(match.getKind()).thenReturn(ElementKind.METHOD);
+        Element never = mock(Element.class);
+        ElementQuery<ExecutableElement> query = ElementQuery.of(Arrays.asList(match, never)).methods();
+
+        assertSame(match, query.first());
+        assertTrue(query.any());
+        assertFalse(query.none());
+        verifyZeroInteractions(never);
+    }
+
+    @Test
+    public void testLazy() throws Exception {
+        List<Element> source = new ArrayList<>(type.getEnclosedElements());
+        ElementQuery<ExecutableElement> query = ElementQuery.of(source).methods();
+        source.clear();
+
+        assertTrue(query.none());
+        assertEquals(Collections.emptyList(), query.toList());
+    }
+
+    private static List<String> names(Iterable<? extends Element> elements) {
+        List<String> names = new ArrayList<>();
+        Iterator<? extends Element> each = elements.iterator();
+        while (each.hasNext()) {
+            names.add(each.next().getSimpleName().toString());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.thatjoemoore.utils.annotations.test.Analysis;
+import com.thatjoemoore.utils.annotations.test.Compilation;
+import com.thatjoemoore.utils.annotations.test.InMemoryCompiler;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ElementsExtTest {
+
+    private Elements elements;
+
+    @Before
+    public void setUp() throws Exception {
+        List<JavaFileObject> sources = Arrays.asList(
+                InMemoryCompiler.source("a.b.c.Foo", "package a.b.c; public class Foo {}"),
+                InMemoryCompiler.source("a.b.Bar", "package a.b; public class Bar { public static class Inner {} }"),
+                InMemoryCompiler.source("a.Baz", "package a; public class Baz {}"),
+                InMemoryCompiler.source("a.b.package-info", "@Deprecated package a.b;"),
+                InMemoryCompiler.source("a.Ann", "package a; public @interface Ann { int x() default 1; String y(); }"),
+                InMemoryCompiler.source("a.Used", "package a; @Ann(y = \"given\") public class Used {}"),
+                InMemoryCompiler.source("s.Marker", "package s; @java.lang.annotation.Inherited @Stereo public @interface Marker {}"),
+                InMemoryCompiler.source("s.Stereo", "package s; @Marker public @interface Stereo {}"),
+                InMemoryCompiler.source("s.Plain", "package s; public @interface Plain {}"),
+                InMemoryCompiler.source("s.Base", "package s; @Marker @Plain public class Base {}"),
+                InMemoryCompiler.source("s.Sub", "package s; public class Sub extends Base {}"),
+                InMemoryCompiler.source("s.Other", "package s; @Stereo public class Other {}"),
+                InMemoryCompiler.source("Unnamed", "public class Unnamed {}"));
+        elements = Analysis.analyze(sources).getElements();
+    }
+
+    @Test
+    public void testGetPackages() throws Exception {
+        List<PackageElement> packages = ElementsExt.getPackages(type("a.b.c.Foo"), elements);
+
+        assertEquals(Arrays.asList(pack("a.b.c"), pack("a.b"), pack("a")), packages);
+    }
+
+    @Test
+    public void testModelCache_keptUnheld() throws Exception {
+        List<PackageElement> foo = ElementsExt.getPackages(type("a.b.c.Foo"), elements);
+
+        System.gc();
+
+        assertSame(foo, ElementsExt.getPackages(type("a.b.c.Foo"), elements));
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        WeakReference<Elements> released = populatedCompilation();
+
+        for (int i = 0; i < 50 && released.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+            // Gives the cache a chance to drop entries whose compilations have been collected
+            ElementsExt.getPackages(type("a.b.c.Foo"), elements);
+        }
+
+        assertNull(released.get());
+    }
+
+    @Test
+    public void testRelease_processingOver() throws Exception {
+        WeakReference<Elements> released = processedCompilation();
+
+        for (int i = 0; i < 50 && released.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+            ElementsExt.getPackages(type("a.b.c.Foo"), elements);
+        }
+
+        assertNull(released.get());
+    }
+
+    /**
+     * Compiles with a processor that fills its compilation's model cache, and lets go of everything but the Elements'
+     * weak reference.
+     */
+    private static WeakReference<Elements> processedCompilation() {
+        PackagesProcessor processor = new PackagesProcessor();
+        Compilation compilation = new InMemoryCompiler().compile(Collections.singletonList(
+                InMemoryCompiler.source("x.y.Foo", "package x.y; public class Foo {}")), processor);
+        assertTrue(compilation.getDiagnostics().toString(), compilation.succeeded());
+        return processor.elements;
+    }
+
+    /**
+     * Looks up Foo's packages each round, keeping its compilation's Elements only weakly.
+     */
+    @SupportedAnnotationTypes("*")
+    private static final class PackagesProcessor extends AbstractProcessorExt {
+        private WeakReference<Elements> elements = new WeakReference<>(null);
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        protected boolean processAbortable(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            elements = new WeakReference<>(elements());
+            ElementsExt.getPackages(elements().getTypeElement("x.y.Foo"), elements());
+            return false;
+        }
+    }
+
+    /**
+     * Analyzes a compilation, fills its model cache, then releases it.
+     */
+    private static WeakReference<Elements> populatedCompilation() {
+        Analysis analysis = Analysis.analyze(Collections.singletonList(
+                InMemoryCompiler.source("x.y.Gone", "package x.y; @Deprecated public class Gone {}")));
+        Elements elements = analysis.getElements();
+        TypeElement gone = analysis.getType("x.y.Gone");
+        List<PackageElement> packages = ElementsExt.getPackages(gone, elements);
+        ElementsExt.getFirstAnnotatedPackage(gone, Deprecated.class, elements);
+        ElementsExt.getEffectiveAnnotations(gone, elements);
+
+        ElementsExt.release(elements);
+
+        assertNotSame(packages, ElementsExt.getPackages(gone, elements));
+        ElementsExt.release(elements);
+        return new WeakReference<>(elements);
+    }
+
+    @Test
+    public void testGetPackages_shared() throws Exception {
+        List<PackageElement> foo = ElementsExt.getPackages(type("a.b.c.Foo"), elements);
+        List<PackageElement> bar = ElementsExt.getPackages(type("a.b.Bar"), elements);
+
+        assertSame(foo, ElementsExt.getPackages(type("a.b.c.Foo"), elements));
+        assertSame(bar, ElementsExt.getPackages(type("a.b.Bar.Inner"), elements));
+        assertEquals(bar, foo.subList(1, 3));
+    }
+
+    @Test
+    public void testGetPackages_unnamed() throws Exception {
+        assertEquals(Collections.emptyList(), ElementsExt.getPackages(type("Unnamed"), elements));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetPackages_immutable() throws Exception {
+        ElementsExt.getPackages(type("a.Baz"), elements).clear();
+    }
+
+    @Test
+    public void testAnnotationValue() throws Exception {
+        AnnotationMirror mirror = type("a.Used").getAnnotationMirrors().get(0);
+
+        assertEquals("given", ElementsExt.annotationValue(mirror, "y", elements).getValue());
+        assertEquals(1, ElementsExt.annotationValue(mirror, "x", elements).getValue());
+        assertNull(ElementsExt.annotationValue(mirror, "missing", elements));
+        assertNull(ElementsExt.annotationValue(null, "x", elements));
+    }
+
+    @Test
+    public void testAnnotationValues() throws Exception {
+        AnnotationMirror mirror = type("a.Used").getAnnotationMirrors().get(0);
+
+        AnnotationValue[] values = ElementsExt.annotationValues(mirror, elements, "x", "missing", "y");
+
+        assertEquals(3, values.length);
+        assertEquals(1, values[0].getValue());
+        assertNull(values[1]);
+        assertEquals("given", values[2].getValue());
+        assertArrayEquals(new AnnotationValue[2], ElementsExt.annotationValues(null, elements, "x", "y"));
+    }
+
+    @Test
+    public void testGetEffectiveAnnotations() throws Exception {
+        Collection<TypeElement> effective = ElementsExt.getEffectiveAnnotations(type("s.Sub"), elements);
+
+        assertTrue(effective.contains(type("s.Marker")));
+        assertTrue(effective.contains(type("s.Stereo")));
+        assertTrue(effective.contains(type("java.lang.annotation.Inherited")));
+        assertFalse(effective.contains(type("s.Plain")));
+        assertEquals(effective.size(), new HashSet<>(effective).size());
+        assertSame(effective, ElementsExt.getEffectiveAnnotations(type("s.Sub"), elements));
+    }
+
+    @Test
+    public void testIsEffectivelyAnnotated() throws Exception {
+        assertTrue(ElementsExt.isEffectivelyAnnotated(type("s.Other"), Inherited.class, elements));
+        assertTrue(ElementsExt.isEffectivelyAnnotated(type("s.Sub"), Inherited.class, elements));
+        assertFalse(ElementsExt.isEffectivelyAnnotated(type("s.Sub"), Deprecated.class, elements));
+        assertFalse(ElementsExt.isEffectivelyAnnotated(type("a.Baz"), Inherited.class, elements));
+    }
+
+    @Test
+    public void testIndexEffectiveAnnotations() throws Exception {
+        EffectiveAnnotationIndex index = ElementsExt.indexEffectiveAnnotations(
+                Arrays.asList(type("s.Base"), type("s.Sub"), type("s.Other"), type("a.Baz")), elements);
+
+        assertEquals(Arrays.asList(type("s.Base"), type("s.Sub"), type("s.Other")), index.annotatedWith("s.Stereo"));
+        assertEquals(Collections.singletonList(type("s.Base")), index.annotatedWith("s.Plain"));
+        assertEquals(Collections.emptyList(), index.annotatedWith(Deprecated.class));
+    }
+
+    @Test
+    public void testGetFirstAnnotatedPackage() throws Exception {
+        assertEquals(pack("a.b"), ElementsExt.getFirstAnnotatedPackage(type("a.b.c.Foo"), Deprecated.class, elements));
+        assertEquals(pack("a.b"), ElementsExt.getFirstAnnotatedPackage(type("a.b.Bar"), Deprecated.class, elements));
+        assertNull(ElementsExt.getFirstAnnotatedPackage(type("a.Baz"), Deprecated.class, elements));
+        assertNull(ElementsExt.getFirstAnnotatedPackage(type("a.b.c.Foo"), SuppressWarnings.class, elements));
+        assertNull(ElementsExt.getFirstAnnotatedPackage(type("Unnamed"), Deprecated.class, elements));
+    }
+
+    @Test
+    public void testNewRound() throws Exception {
+        RoundEnvironment types = mock(RoundEnvironment.class);
+        doReturn(Collections.singleton(type("a.Baz"))).when(types).getRootElements();
+        RoundEnvironment packages = mock(RoundEnvironment.class);
+        doReturn(Collections.singleton(pack("a"))).when(packages).getRootElements();
+        List<PackageElement> first = ElementsExt.getPackages(type("a.b.c.Foo"), elements);
+
+        ElementsExt.newRound(types, elements);
+        assertSame(first, ElementsExt.getPackages(type("a.b.c.Foo"), elements));
+
+        ElementsExt.newRound(packages, elements);
+        List<PackageElement> second = ElementsExt.getPackages(type("a.b.c.Foo"), elements);
+        assertNotSame(first, second);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testGetFirstAnnotatedPackage_generatedPackageInfo() throws Exception {
+        PackageInfoProcessor processor = new PackageInfoProcessor();
+        Compilation compilation = new InMemoryCompiler().compile(Collections.singletonList(
+                InMemoryCompiler.source("x.y.Foo", "package x.y; @Deprecated public class Foo {}")), processor);
+
+        assertTrue(compilation.getDiagnostics().toString(), compilation.succeeded());
+        assertEquals(Arrays.asList("none", "x"), processor.found);
+    }
+
+    /**
+     * Looks up Foo's nearest deprecated package each round, generating a deprecated package-info for x after the
+     * first.
+     */
+    @SupportedAnnotationTypes("*")
+    private static final class PackageInfoProcessor extends AbstractProcessorExt {
+        private final List<String> found = new ArrayList<>();
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        protected boolean processAbortable(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            if (roundEnv.processingOver()) {
+                return false;
+            }
+            PackageElement pack = ElementsExt.getFirstAnnotatedPackage(elements().getTypeElement("x.y.Foo"), Deprecated.class, elements());
+            found.add(pack == null ? "none" : pack.getQualifiedName().toString());
+            if (found.size() == 1) {
+                try (Writer writer = filer().createSourceFile("x.package-info").openWriter()) {
+                    writer.write("@Deprecated package x;");
+                } catch (IOException ex) {
+                    throw new AbortProcessingException(ex.toString(), null, null, null);
+                }
+            }
+            return false;
+        }
+    }
+
+    @Test
+    public void testGetEffectiveAnnotations_generatedMetaAnnotation() throws Exception {
+        MetaAnnotationProcessor processor = new MetaAnnotationProcessor();
+        Compilation compilation = new InMemoryCompiler().compile(Collections.singletonList(
+                InMemoryCompiler.source("x.y.Foo", "package x.y; @x.Marker public class Foo {}")), processor);
+
+        assertTrue(compilation.getDiagnostics().toString(), compilation.succeeded());
+        assertEquals(Arrays.asList(false, true), processor.found);
+    }
+
+    /**
+     * Asks each round whether Foo is effectively documented, generating its documented annotation, Marker, after the
+     * first.
+     */
+    @SupportedAnnotationTypes("*")
+    private static final class MetaAnnotationProcessor extends AbstractProcessorExt {
+        private final List<Boolean> found = new ArrayList<>();
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        protected boolean processAbortable(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            if (roundEnv.processingOver()) {
+                return false;
+            }
+            found.add(ElementsExt.isEffectivelyAnnotated(elements().getTypeElement("x.y.Foo"), Documented.class, elements()));
+            if (found.size() == 1) {
+                try (Writer writer = filer().createSourceFile("x.Marker").openWriter()) {
+                    writer.write("package x; @java.lang.annotation.Documented public @interface Marker {}");
+                } catch (IOException ex) {
+                    throw new AbortProcessingException(ex.toString(), null, null, null);
+                }
+            }
+            return false;
+        }
+    }
+
+    private TypeElement type(String name) {
+        return elements.getTypeElement(name);
+    }
+
+    private PackageElement pack(String name) {
+        return elements.getPackageElement(name);
+    }
+}
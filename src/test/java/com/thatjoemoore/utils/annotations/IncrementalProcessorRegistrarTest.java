@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.thatjoemoore.utils.annotations.test.Compilation;
+import com.thatjoemoore.utils.annotations.test.InMemoryCompiler;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IncrementalProcessorRegistrarTest {
+
+    private InMemoryCompiler compiler;
+    private List<String> options;
+
+    @Before
+    public void setUp() throws Exception {
+        compiler = new InMemoryCompiler();
+        String classes = new File(IncrementalProcessor.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        options = Arrays.asList("-classpath", classes);
+    }
+
+    @Test
+    public void testRegistration() throws Exception {
+        Compilation result = compile(
+                InMemoryCompiler.source("p.Second", "package p;\n"
+                        + "import com.thatjoemoore.utils.annotations.*;\n"
+                        + "@IncrementalProcessor(IncrementalMode.AGGREGATING)\n"
+                        + "public abstract class Second extends javax.annotation.processing.AbstractProcessor {}"),
+                InMemoryCompiler.source("p.First", "package p;\n"
+                        + "import com.thatjoemoore.utils.annotations.*;\n"
+                        + "@IncrementalProcessor(IncrementalMode.ISOLATING)\n"
+                        + "public abstract class First extends javax.annotation.processing.AbstractProcessor {\n"
+                        + "    @IncrementalProcessor(IncrementalMode.AGGREGATING)\n"
+                        + "    public abstract static class Nested extends javax.annotation.processing.AbstractProcessor {}\n"
+                        + "}"),
+                InMemoryCompiler.source("p.Plain", "package p;\n"
+                        + "public class Plain {}"));
+
+        assertTrue(result.getDiagnostics().toString(), result.succeeded());
+        byte[] registration = result.getResource(StandardLocation.CLASS_OUTPUT, IncrementalProcessorRegistrar.RESOURCE);
+        assertNotNull(result.getFiles().keySet().toString(), registration);
+        assertEquals("p.First,isolating\n"
+                + "p.First$Nested,aggregating\n"
+                + "p.Second,aggregating\n", new String(registration, "UTF-8"));
+    }
+
+    @Test
+    public void testRegistration_none() throws Exception {
+        Compilation result = compile(InMemoryCompiler.source("p.Plain", "package p;\n"
+                + "public class Plain {}"));
+
+        assertTrue(result.getDiagnostics().toString(), result.succeeded());
+        assertNull(result.getResource(StandardLocation.CLASS_OUTPUT, IncrementalProcessorRegistrar.RESOURCE));
+    }
+
+    @Test
+    public void testRegistration_notAProcessor() throws Exception {
+        Compilation result = compile(InMemoryCompiler.source("p.NotAProcessor", "package p;\n"
+                + "import com.thatjoemoore.utils.annotations.*;\n"
+                + "@IncrementalProcessor(IncrementalMode.ISOLATING)\n"
+                + "public class NotAProcessor {}"));
+
+        assertFalse(result.succeeded());
+        assertEquals(Collections.singletonList("@IncrementalProcessor can only be used on annotation processors"),
+                result.getMessages(Diagnostic.Kind.ERROR));
+        assertNull(result.getResource(StandardLocation.CLASS_OUTPUT, IncrementalProcessorRegistrar.RESOURCE));
+    }
+
+    private Compilation compile(JavaFileObject... sources) {
+        return compiler.compile(options, Arrays.asList(sources), new IncrementalProcessorRegistrar());
+    }
+}
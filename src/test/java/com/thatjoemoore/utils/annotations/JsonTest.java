@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonTest {
+
+    @Test
+    public void testNesting() throws Exception {
+        StringBuilder out = new StringBuilder();
+        new Json(out).beginObject()
+                .name("a").value(1)
+                .name("b").beginArray().value(true).value("x").value((String) null).beginObject().endObject().endArray()
+                .name("c").beginObject().name("d").value(false).endObject()
+                .endObject();
+        assertEquals("{\"a\":1,\"b\":[true,\"x\",null,{}],\"c\":{\"d\":false}}", out.toString());
+    }
+
+    @Test
+    public void testQuote() throws Exception {
+        StringBuilder out = new StringBuilder();
+        Json.quote("say \"hi\"\\\n\t\u0001\u2028", out);
+        assertEquals("\"say \\\"hi\\\"\\\\\\n\\t\\u0001\\u2028\"", out.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnbalanced() throws Exception {
+        new Json(new StringBuilder()).endObject();
+    }
+}
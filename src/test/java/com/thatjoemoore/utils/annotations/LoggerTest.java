@@ -16,9 +16,11 @@
 
 package com.thatjoemoore.utils.annotations;
 
+import com.google.common.base.Supplier;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
@@ -941,6 +943,382 @@ public class LoggerTest {
     }
 
 
+    //=========================
+    // buffering
+    //=========================
+
+    @Test
+    public void testFlush_unbuffered() throws Exception {
+        assertFalse(logger.isBuffered());
+        logger.error("test", element);
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "test", element, null, null);
+
+        logger.flush();
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testBuffered_holdsUntilFlush() throws Exception {
+        logger = new Logger(messager, true);
+        assertTrue(logger.isBuffered());
+
+        logger.error("test", element);
+        logger.note("note");
+        verifyZeroInteractions(messager);
+
+        logger.flush();
+        InOrder order = inOrder(messager);
+        order.verify(messager).printMessage(Diagnostic.Kind.ERROR, "test", element, null, null);
+        order.verify(messager).printMessage(Diagnostic.Kind.NOTE, "note", null, null, null);
+        verifyNoMoreInteractions(messager);
+
+        logger.flush();
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testBuffered_collapsesDuplicates() throws Exception {
+        Element other = mock(Element.class);
+        logger = new Logger(messager, true);
+
+        for (int i = 0; i < 3; i++) {
+            logger.warning("same", element);
+            logger.warning("same", other);
+            logger.error(new StringBuilder("same"), element);
+        }
+        logger.warning("different", element);
+        logger.flush();
+
+        InOrder order = inOrder(messager);
+        order.verify(messager).printMessage(Diagnostic.Kind.WARNING, "same", element, null, null);
+        order.verify(messager).printMessage(Diagnostic.Kind.WARNING, "same", other, null, null);
+        order.verify(messager).printMessage(Diagnostic.Kind.ERROR, "same", element, null, null);
+        order.verify(messager).printMessage(Diagnostic.Kind.WARNING, "different", element, null, null);
+        order.verify(messager).printMessage(Diagnostic.Kind.NOTE, "6 duplicate diagnostics were not repeated (2 error, 4 warning)");
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testBuffered_fatal() throws Exception {
+        logger = new Logger(messager, true);
+        try {
+            logger.fatal("test", element);
+            fail("Should have thrown exception");
+        } catch (AbstractProcessorExt.AbortProcessingException ex) {
+            assertEquals("test", ex.getMessage());
+        }
+        verifyZeroInteractions(messager);
+
+        logger.flush();
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "test", element, null, null);
+    }
+
+    //=========================
+    // annotation mirror lookups
+    //=========================
+
+    /**
+     * Makes {@link #annotationMirror} the only annotation on {@link #element}, as {@code @Override}.
+     */
+    private void stubOverride() {
+        TypeElement typeElement = mock(TypeElement.class);
+        DeclaredType annotType = mock(DeclaredType.class);
+        Name name = mock(Name.class);
+        when(element.getAnnotationMirrors())
+                .thenAnswer(new AnnotationListAnswer());
+        when(annotationMirror.getAnnotationType())
+                .thenReturn(annotType);
+        when(annotType.asElement())
+                .thenReturn(typeElement);
+        when(typeElement.getQualifiedName())
+                .thenReturn(name);
+        when(name.contentEquals(anyString()))
+                .thenReturn(false);
+        when(name.contentEquals("java.lang.Override"))
+                .thenReturn(true);
+        //noinspection unchecked
+        when(typeElement.accept((ElementVisitor<TypeElement, Void>) Mockito.notNull(), any(Void.class)))
+                .thenReturn(typeElement);
+    }
+
+    @Test
+    public void testAnnotation_resolvesAnnotationType() throws Exception {
+        stubOverride();
+
+        logger.warning("test", element, new MyOverride());
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "test", element, annotationMirror, null);
+    }
+
+    @Test
+    public void testAnnotationClass_noMatch() throws Exception {
+        stubOverride();
+
+        logger.warning("test", element, Deprecated.class);
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "test", element, null, null);
+    }
+
+    @Test
+    public void testAnnotationClass_cachedPerRound() throws Exception {
+        stubOverride();
+
+        logger.warning("one", element, Override.class);
+        logger.note("two", element, new MyOverride());
+        logger.warning("three", element, Deprecated.class);
+        logger.warning("four", element, Deprecated.class);
+        verify(element, times(2)).getAnnotationMirrors();
+
+        logger.endRound();
+        logger.warning("five", element, Override.class);
+        verify(element, times(3)).getAnnotationMirrors();
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "one", element, annotationMirror, null);
+        verify(messager).printMessage(Diagnostic.Kind.NOTE, "two", element, annotationMirror, null);
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "four", element, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "five", element, annotationMirror, null);
+    }
+
+    //=========================
+    // thresholds and lazy messages
+    //=========================
+
+    @Test
+    public void testThreshold() throws Exception {
+        logger = new Logger(messager, false, Logger.Level.WARNING);
+        assertSame(Logger.Level.WARNING, logger.getThreshold());
+        assertTrue(logger.isEnabled(Logger.Level.MANDATORY_WARNING));
+        assertTrue(logger.isEnabled(Logger.Level.WARNING));
+        assertFalse(logger.isEnabled(Logger.Level.NOTE));
+
+        logger.note("note", element);
+        logger.other("other", element);
+        logger.warning("warning", element);
+        logger.mandatory("mandatory", element);
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "warning", element, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.MANDATORY_WARNING, "mandatory", element, null, null);
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testThreshold_errorsAlwaysLogged() throws Exception {
+        logger = new Logger(messager, false, Logger.Level.FATAL);
+        assertSame(Logger.Level.ERROR, logger.getThreshold());
+
+        logger.error("error");
+        logger.mandatory("mandatory");
+
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "error", null, null, null);
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testThreshold_skipsMirrorLookup() throws Exception {
+        logger = new Logger(messager, false, Logger.Level.WARNING);
+
+        logger.note("note", element, Override.class);
+        logger.note("note", element, new MyOverride());
+
+        verifyZeroInteractions(element, messager);
+    }
+
+    @Test
+    public void testFormat() throws Exception {
+        logger.warningf(element, "one %s", "a");
+        logger.notef(element, "two %s %d", "a", 2);
+        logger.otherf(null, "three %s %s %s", "a", "b", "c");
+        logger.errorf(element, "none");
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "one a", element, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.NOTE, "two a 2", element, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.OTHER, "three a b c", null, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "none", element, null, null);
+    }
+
+    @Test
+    public void testFormat_disabled() throws Exception {
+        logger = new Logger(messager, false, Logger.Level.ERROR);
+        Object arg = mock(Object.class);
+
+        logger.warningf(element, "%s", arg);
+        logger.notef(element, "%s %s", arg, arg);
+        logger.mandatoryf(element, "%s %s %s", arg, arg, arg);
+
+        verifyZeroInteractions(messager);
+    }
+
+    @Test(expected = AbstractProcessorExt.AbortProcessingException.class)
+    public void testFormat_fatal() throws Exception {
+        logger.fatalf(element, "fatal %s", "a");
+    }
+
+    @Test
+    public void testLazy() throws Exception {
+        logger = new Logger(messager, false, Logger.Level.WARNING);
+        @SuppressWarnings("unchecked")
+        Supplier<CharSequence> enabled = mock(Supplier.class);
+        when(enabled.get()).thenReturn("enabled");
+        @SuppressWarnings("unchecked")
+        Supplier<CharSequence> disabled = mock(Supplier.class);
+
+        logger.warningLazy(element, enabled);
+        logger.noteLazy(element, disabled);
+        logger.otherLazy(element, disabled);
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "enabled", element, null, null);
+        verifyZeroInteractions(disabled);
+        verifyNoMoreInteractions(messager);
+    }
+
+    //=========================
+    // limits
+    //=========================
+
+    @Test
+    public void testLimits_perLevel() throws Exception {
+        logger.setLimits(2, 0, 0);
+        for (int i = 0; i < 5; i++) {
+            logger.warning("warning " + i);
+        }
+        logger.note("note");
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "warning 0", null, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "warning 1", null, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.NOTE, "note", null, null, null);
+        verifyNoMoreInteractions(messager);
+
+        logger.endRound();
+        verify(messager).printMessage(Diagnostic.Kind.NOTE, "3 more diagnostics were suppressed by the logging limits (3 warning)");
+
+        // Counts start again each round, and there's no summary if nothing was suppressed
+        logger.warning("next round");
+        logger.endRound();
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "next round", null, null, null);
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testLimits_perElement() throws Exception {
+        Element other = mock(Element.class);
+        logger.setLimits(0, 1, 0);
+
+        logger.warning("one", element);
+        logger.note("two", element);
+        logger.error("three", element);
+        logger.warning("four", other);
+        logger.warning("five");
+        logger.warning("six");
+        logger.endRound();
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "one", element, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "four", other, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "five", null, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "six", null, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.NOTE, "2 more diagnostics were suppressed by the logging limits (1 error, 1 note)");
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testLimits_perAnnotationType() throws Exception {
+        DeclaredType annotType = mock(DeclaredType.class);
+        TypeElement typeElement = mock(TypeElement.class);
+        when(annotationMirror.getAnnotationType()).thenReturn(annotType);
+        when(annotType.asElement()).thenReturn(typeElement);
+        AnnotationMirror otherMirror = mock(AnnotationMirror.class);
+        when(otherMirror.getAnnotationType()).thenReturn(annotType);
+        logger.setLimits(0, 0, 2);
+
+        logger.warning("one", element, annotationMirror);
+        logger.warning("two", mock(Element.class), otherMirror);
+        logger.warning("three", mock(Element.class), annotationMirror);
+        logger.warning("four", element);
+        logger.endRound();
+
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "one", element, annotationMirror, null);
+        verify(messager).printMessage(same(Diagnostic.Kind.WARNING), eq("two"), any(Element.class), same(otherMirror), isNull(AnnotationValue.class));
+        verify(messager).printMessage(Diagnostic.Kind.WARNING, "four", element, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.NOTE, "1 more diagnostics were suppressed by the logging limits (1 warning)");
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testLimits_fatalNeverSuppressed() throws Exception {
+        logger.setLimits(1, 1, 0);
+        logger.error("error", element);
+        try {
+            logger.fatal("fatal", element);
+            fail("Should have thrown exception");
+        } catch (AbstractProcessorExt.AbortProcessingException ex) {
+        }
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "error", element, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "fatal", element, null, null);
+    }
+
+    @Test
+    public void testLimits_bufferedRepeatsDontCount() throws Exception {
+        logger = new Logger(messager, true);
+        logger.setLimits(1, 0, 0);
+
+        logger.warning("same", element);
+        logger.warning("same", element);
+        logger.warning("different", element);
+        logger.endRound();
+
+        InOrder order = inOrder(messager);
+        order.verify(messager).printMessage(Diagnostic.Kind.WARNING, "same", element, null, null);
+        order.verify(messager).printMessage(Diagnostic.Kind.NOTE, "1 duplicate diagnostics were not repeated (1 warning)");
+        order.verify(messager).printMessage(Diagnostic.Kind.NOTE, "1 more diagnostics were suppressed by the logging limits (1 warning)");
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLimits_negative() throws Exception {
+        logger.setLimits(-1, 0, 0);
+    }
+
+    //=========================
+    // aggregating
+    //=========================
+
+    @Test
+    public void testAggregating_fatalDoesNotThrow() throws Exception {
+        logger.setAggregating(true);
+        logger.fatal("first", element);
+        logger.fatalf(element, "second %s", "time");
+
+        assertEquals(2, logger.getFatalCount());
+        try {
+            logger.abortIfFatal();
+            fail("Should have thrown exception");
+        } catch (AbstractProcessorExt.AbortProcessingException ex) {
+            assertEquals("Aborting after 2 fatal errors", ex.getMessage());
+        }
+
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "first", element, null, null);
+        verify(messager).printMessage(Diagnostic.Kind.ERROR, "second time", element, null, null);
+        verifyNoMoreInteractions(messager);
+    }
+
+    @Test
+    public void testAggregating_endRoundResets() throws Exception {
+        logger.setAggregating(true);
+        logger.fatal("test");
+        logger.endRound();
+
+        assertEquals(0, logger.getFatalCount());
+        logger.abortIfFatal();
+    }
+
+    @Test
+    public void testAbortProcessingException_noStackTrace() throws Exception {
+        try {
+            logger.fatal("test");
+            fail("Should have thrown exception");
+        } catch (AbstractProcessorExt.AbortProcessingException ex) {
+            assertEquals(0, ex.getStackTrace().length);
+        }
+    }
+
     private static final class MyOverride implements Override {
         @Override
         public Class<? extends Annotation> annotationType() {
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thatjoemoore.utils.annotations;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ShardedAnalysisTest {
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testAnalyze_keepsOrder() throws Exception {
+        List<TypeSnapshot> roots = snapshots(103);
+
+        List<List<String>> partials = ShardedAnalysis.analyze(pool, roots, new NameAnalyzer());
+
+        assertEquals(16, partials.size());
+        List<String> names = new ArrayList<>();
+        for (List<String> each : partials) {
+            assertFalse(each.isEmpty());
+            names.addAll(each);
+        }
+        assertEquals(names(roots), names);
+    }
+
+    @Test
+    public void testAnalyze_fewerRootsThanShards() throws Exception {
+        List<TypeSnapshot> roots = snapshots(3);
+
+        List<List<String>> partials = ShardedAnalysis.analyze(pool, roots, new NameAnalyzer());
+
+        assertEquals(3, partials.size());
+        assertEquals(Collections.singletonList("com.example.Type0"), partials.get(0));
+        assertEquals(Collections.singletonList("com.example.Type2"), partials.get(2));
+    }
+
+    @Test
+    public void testAnalyze_empty() throws Exception {
+        assertTrue(ShardedAnalysis.analyze(pool, Collections.<TypeSnapshot>emptyList(), new NameAnalyzer()).isEmpty());
+    }
+
+    @Test
+    public void testAnalyze_propagatesAbort() throws Exception {
+        try {
+            ShardedAnalysis.analyze(pool, snapshots(10), new NameAnalyzer() {
+                @Override
+                public List<String> analyze(List<TypeSnapshot> shard) {
+                    throw new AbstractProcessorExt.AbortProcessingException("broken", null, null, null);
+                }
+            });
+            fail("Should have thrown AbortProcessingException");
+        } catch (AbstractProcessorExt.AbortProcessingException ex) {
+            assertEquals("broken", ex.getMessage());
+        }
+    }
+
+    static List<TypeSnapshot> snapshots(int count) {
+        List<TypeSnapshot> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new TypeSnapshot("com.example.Type" + i, "com.example.Type" + i, "Type" + i, ElementKind.CLASS,
+                    EnumSet.of(Modifier.PUBLIC), Collections.<String>emptyList(), "java.lang.Object",
+                    Collections.<String>emptyList(),
+                    Collections.<AnnotationSnapshot>emptyList(), Collections.<MemberSnapshot>emptyList(),
+                    Collections.<TypeSnapshot>emptyList()));
+        }
+        return result;
+    }
+
+    private static List<String> names(List<TypeSnapshot> snapshots) {
+        List<String> result = new ArrayList<>(snapshots.size());
+        for (TypeSnapshot each : snapshots) {
+            result.add(each.getQualifiedName());
+        }
+        return result;
+    }
+
+    private static class NameAnalyzer implements AnalyzeAndWriteProcessor.ShardedAnalyzer<List<String>, List<String>> {
+        @Override
+        public void init(ProcessingEnvironment processingEnv, RoundEnvironment roundEnv, Logger logger) {
+        }
+
+        @Override
+        public List<TypeSnapshot> capture(Set<? extends TypeElement> annotations) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> analyze(List<TypeSnapshot> shard) {
+            return names(shard);
+        }
+
+        @Override
+        public List<String> merge(List<List<String>> partials) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.thatjoemoore.utils.annotations.test.Analysis;
+import com.thatjoemoore.utils.annotations.test.InMemoryCompiler;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SupertypeIndexTest {
+
+    private Elements elements;
+    private Types types;
+    private final AtomicInteger typesCalls = new AtomicInteger();
+    private SupertypeIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        Analysis analysis = Analysis.analyze(Arrays.asList(
+                InMemoryCompiler.source("t.I", "package t; public interface I {}"),
+                InMemoryCompiler.source("t.J", "package t; public interface J extends I {}"),
+                InMemoryCompiler.source("t.A", "package t; public class A implements J {}"),
+                InMemoryCompiler.source("t.B", "package t; public class B extends A {}"),
+                InMemoryCompiler.source("t.C", "package t; public class C {}"),
+                InMemoryCompiler.source("t.Outer", "package t; public class Outer<T> { public class Inner {} }")));
+        elements = analysis.getElements();
+        types = countingTypes(analysis.getTypes());
+        index = new SupertypeIndex(types, elements);
+    }
+
+    @Test
+    public void testIsSubtype_elements() throws Exception {
+        assertTrue(index.isSubtype(type("t.B"), type("t.I")));
+        assertTrue(index.isSubtype(type("t.B"), type("t.A")));
+        assertTrue(index.isSubtype(type("t.A"), type("t.A")));
+        assertTrue(index.isSubtype(type("t.J"), type("java.lang.Object")));
+        assertFalse(index.isSubtype(type("t.A"), type("t.B")));
+        assertFalse(index.isSubtype(type("t.B"), type("t.C")));
+        assertFalse(index.isSubtype(type("t.I"), type("t.J")));
+        assertEquals(0, typesCalls.get());
+    }
+
+    @Test
+    public void testIsSubtype_erasedAnswers() throws Exception {
+        assertTrue(index.isSubtype(type("t.B").asType(), type("t.I").asType()));
+        assertFalse(index.isSubtype(declared("java.util.ArrayList", "java.lang.String"), type("java.util.Map").asType()));
+        assertTrue(index.isSubtype(declared("java.util.ArrayList", "java.lang.String"), types.erasure(type("java.util.Collection").asType())));
+        assertEquals(0, typesCalls.get());
+    }
+
+    @Test
+    public void testIsSubtype_generic() throws Exception {
+        TypeMirror arrayList = declared("java.util.ArrayList", "java.lang.String");
+        TypeMirror strings = declared("java.util.List", "java.lang.String");
+        TypeMirror integers = declared("java.util.List", "java.lang.Integer");
+        typesCalls.set(0);
+
+        assertTrue(index.isSubtype(arrayList, strings));
+        assertFalse(index.isSubtype(arrayList, integers));
+        assertTrue(index.isSubtype(arrayList, strings));
+        assertFalse(index.isSubtype(arrayList, integers));
+        assertEquals(2, typesCalls.get());
+    }
+
+    @Test
+    public void testIsSubtype_genericSharedAcrossMirrors() throws Exception {
+        typesCalls.set(0);
+
+        assertTrue(index.isSubtype(declared("java.util.ArrayList", "java.lang.String"), declared("java.util.List", "java.lang.String")));
+        assertTrue(index.isSubtype(declared("java.util.ArrayList", "java.lang.String"), declared("java.util.List", "java.lang.String")));
+        assertFalse(index.isSubtype(declared("java.util.ArrayList", "java.lang.String"), declared("java.util.List", "java.lang.Integer")));
+        assertEquals(2, typesCalls.get());
+    }
+
+    @Test
+    public void testIsSubtype_parameterizedEnclosingType() throws Exception {
+        TypeMirror stringsInner = inner("java.lang.String");
+        TypeMirror integersInner = inner("java.lang.Integer");
+
+        assertFalse(index.isSubtype(stringsInner, integersInner));
+        assertFalse(index.isSubtype(integersInner, stringsInner));
+        assertTrue(index.isSubtype(stringsInner, inner("java.lang.String")));
+        assertTrue(index.isSubtype(stringsInner, types.erasure(integersInner)));
+    }
+
+    @Test
+    public void testIsAssignable() throws Exception {
+        TypeMirror primitive = types.getPrimitiveType(javax.lang.model.type.TypeKind.INT);
+        TypeMirror integer = type("java.lang.Integer").asType();
+        typesCalls.set(0);
+
+        assertTrue(index.isAssignable(primitive, integer));
+        assertTrue(index.isAssignable(primitive, integer));
+        assertFalse(index.isAssignable(type("t.C").asType(), type("t.I").asType()));
+        assertEquals(1, typesCalls.get());
+    }
+
+    private TypeElement type(String name) {
+        return elements.getTypeElement(name);
+    }
+
+    private DeclaredType declared(String name, String argument) {
+        return types.getDeclaredType(type(name), type(argument).asType());
+    }
+
+    /**
+     * Returns {@code Outer<argument>.Inner}.
+     */
+    private DeclaredType inner(String argument) {
+        return types.getDeclaredType(declared("t.Outer", argument), type("t.Outer.Inner"));
+    }
+
+    /**
+     * Wraps {@code delegate}, counting the subtype and assignability questions asked of it.
+     */
+    private Types countingTypes(final Types delegate) {
+        return (Types) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Types.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("isSubtype") || method.getName().equals("isAssignable")) {
+                    typesCalls.incrementAndGet();
+                }
+                try {
+                    return method.invoke(delegate, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thatjoemoore.utils.annotations;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TrackedFilerTest {
+
+    @Mock
+    private Filer delegate;
+    @Mock
+    private TypeElement first;
+    @Mock
+    private TypeElement second;
+    @Mock
+    private JavaFileObject javaFile;
+    @Mock
+    private FileObject resource;
+
+    @Before
+    public void setUp() throws Exception {
+        Name firstName = mock(Name.class);
+        when(firstName.toString()).thenReturn("com.example.First");
+        when(first.getQualifiedName()).thenReturn(firstName);
+        Name secondName = mock(Name.class);
+        when(secondName.toString()).thenReturn("com.example.Second");
+        when(second.getQualifiedName()).thenReturn(secondName);
+    }
+
+    @Test
+    public void testCreateSourceFile_isolating() throws Exception {
+        TrackedFiler filer = new TrackedFiler(delegate, IncrementalMode.ISOLATING);
+        when(delegate.createSourceFile("com.example.FirstGen", first)).thenReturn(javaFile);
+
+        assertSame(javaFile, filer.createSourceFile("com.example.FirstGen", first));
+        assertEquals(Collections.singletonMap("com.example.FirstGen", Collections.singletonList("com.example.First")),
+                filer.getGeneratedFiles());
+    }
+
+    @Test
+    public void testCreateSourceFile_isolatingRejectsMultipleOrigins() throws Exception {
+        TrackedFiler filer = new TrackedFiler(delegate, IncrementalMode.ISOLATING);
+        try {
+            filer.createSourceFile("com.example.Gen", first, second);
+            fail("Should have thrown IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            assertEquals("2 originating elements given for com.example.Gen; isolating processors must give exactly one", ex.getMessage());
+        }
+        verifyZeroInteractions(delegate);
+        assertTrue(filer.getGeneratedFiles().isEmpty());
+    }
+
+    @Test
+    public void testCreateClassFile_requiresOrigins() throws Exception {
+        TrackedFiler filer = new TrackedFiler(delegate, IncrementalMode.AGGREGATING);
+        try {
+            filer.createClassFile("com.example.Gen");
+            fail("Should have thrown IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            assertEquals("No originating elements given for com.example.Gen; Gradle cannot process aggregating processors incrementally without them", ex.getMessage());
+        }
+        verifyZeroInteractions(delegate);
+    }
+
+    @Test
+    public void testCreateResource_aggregating() throws Exception {
+        TrackedFiler filer = new TrackedFiler(delegate, IncrementalMode.AGGREGATING);
+        when(delegate.createResource(StandardLocation.CLASS_OUTPUT, "com.example", "index.txt", first, second))
+                .thenReturn(resource);
+
+        assertSame(resource, filer.createResource(StandardLocation.CLASS_OUTPUT, "com.example", "index.txt", first, second));
+        assertEquals(Collections.singletonMap("CLASS_OUTPUT:com/example/index.txt", Arrays.asList("com.example.First", "com.example.Second")),
+                filer.getGeneratedFiles());
+    }
+
+    @Test
+    public void testCreateResource_rejectsNullOrigin() throws Exception {
+        TrackedFiler filer = new TrackedFiler(delegate, IncrementalMode.AGGREGATING);
+        try {
+            filer.createResource(StandardLocation.CLASS_OUTPUT, "", "index.txt", first, (Element) null);
+            fail("Should have thrown IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            assertEquals("Null originating element given for CLASS_OUTPUT:index.txt", ex.getMessage());
+        }
+        verifyZeroInteractions(delegate);
+    }
+
+    @Test
+    public void testGetResource() throws Exception {
+        TrackedFiler filer = new TrackedFiler(delegate, IncrementalMode.ISOLATING);
+        when(delegate.getResource(StandardLocation.CLASS_OUTPUT, "", "index.txt")).thenReturn(resource);
+
+        assertSame(resource, filer.getResource(StandardLocation.CLASS_OUTPUT, "", "index.txt"));
+        assertTrue(filer.getGeneratedFiles().isEmpty());
+    }
+}
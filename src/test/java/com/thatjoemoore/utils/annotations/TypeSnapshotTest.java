@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations;
+
+import com.google.common.collect.ImmutableList;
+import com.thatjoemoore.utils.annotations.test.Analysis;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.tools.JavaFileObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TypeSnapshotTest {
+
+    private static final List<JavaFileObject> SOURCES = Arrays.asList(
+            Analysis.source("a.Inner", "package a; public @interface Inner { int[] ints() default {}; }"),
+            Analysis.source("a.Outer", "package a;\n"
+                    + "import java.lang.annotation.RetentionPolicy;\n"
+                    + "public @interface Outer {\n"
+                    + "    int number() default 1;\n"
+                    + "    Inner inner() default @Inner;\n"
+                    + "    Inner[] inners() default {};\n"
+                    + "    Class<?>[] types() default {};\n"
+                    + "    RetentionPolicy policy() default RetentionPolicy.CLASS;\n"
+                    + "}"),
+            Analysis.source("a.Defaulted", "package a; @Outer public class Defaulted {}"),
+            Analysis.source("a.Explicit", "package a;\n"
+                    + "import java.lang.annotation.RetentionPolicy;\n"
+                    + "@Outer(number = 1, inner = @Inner(ints = {}), policy = RetentionPolicy.CLASS)\n"
+                    + "public class Explicit {}"),
+            Analysis.source("a.Changed", "package a; @Outer(number = 2) public class Changed {}"),
+            Analysis.source("a.Nested", "package a;\n"
+                    + "import java.lang.annotation.RetentionPolicy;\n"
+                    + "@Outer(inner = @Inner(ints = {1, 2}), inners = {@Inner(ints = 3), @Inner},\n"
+                    + "        types = {String.class, int[].class}, policy = RetentionPolicy.RUNTIME)\n"
+                    + "public class Nested<T> extends java.util.AbstractList<T> implements java.io.Serializable {\n"
+                    + "    public static final String NAME = \"nested\";\n"
+                    + "    @Deprecated public T get(int index) { return null; }\n"
+                    + "    public int size() { return 0; }\n"
+                    + "    static class Child {}\n"
+                    + "}"),
+            Analysis.source("a.Signatures", "package a;\n"
+                    + "public class Signatures<T extends Number, U extends Comparable<U> & java.io.Serializable> {\n"
+                    + "    public <E extends Exception> void varArgs(String... args) throws E, java.io.IOException {}\n"
+                    + "    public void array(String[] args) {}\n"
+                    + "}"));
+
+    private Analysis first;
+    private Analysis second;
+
+    @Before
+    public void setUp() throws Exception {
+        first = Analysis.analyze(SOURCES);
+        second = Analysis.analyze(SOURCES);
+    }
+
+    @Test
+    public void testEquals_separateCompilations() throws Exception {
+        TypeSnapshot one = snapshot(first, "a.Nested");
+        TypeSnapshot other = snapshot(second, "a.Nested");
+
+        assertNotSame(one, other);
+        assertEquals(one, other);
+        assertEquals(one.hashCode(), other.hashCode());
+        assertEquals(one.getMembers(), other.getMembers());
+        assertEquals(one.getNestedTypes(), other.getNestedTypes());
+    }
+
+    @Test
+    public void testEquals_differentTypes() throws Exception {
+        assertNotEquals(snapshot(first, "a.Defaulted"), snapshot(first, "a.Explicit"));
+        assertNotEquals(snapshot(first, "a.Nested"), snapshot(first, "a.Nested").getNestedTypes().get(0));
+    }
+
+    @Test
+    public void testAnnotation_defaultedAndExplicit() throws Exception {
+        AnnotationSnapshot defaulted = snapshot(first, "a.Defaulted").getAnnotation("a.Outer");
+        AnnotationSnapshot explicit = snapshot(second, "a.Explicit").getAnnotation("a.Outer");
+        AnnotationSnapshot changed = snapshot(first, "a.Changed").getAnnotation("a.Outer");
+
+        assertEquals(defaulted, explicit);
+        assertEquals(defaulted.hashCode(), explicit.hashCode());
+        assertEquals(Arrays.asList("number", "inner", "inners", "types", "policy"),
+                ImmutableList.copyOf(defaulted.getValues().keySet()));
+        assertNotEquals(defaulted, changed);
+        assertEquals(2, changed.getValue("number"));
+    }
+
+    @Test
+    public void testAnnotation_nestedAndArrays() throws Exception {
+        AnnotationSnapshot outer = snapshot(first, "a.Nested").getAnnotation("a.Outer");
+
+        assertEquals(new AnnotationSnapshot("a.Inner", singletonValue("ints", Arrays.asList(1, 2))), outer.getValue("inner"));
+        assertEquals(Arrays.asList(
+                new AnnotationSnapshot("a.Inner", singletonValue("ints", Arrays.asList(3))),
+                new AnnotationSnapshot("a.Inner", singletonValue("ints", Arrays.asList()))), outer.getValue("inners"));
+        assertEquals(Arrays.asList("java.lang.String", "int[]"), outer.getValue("types"));
+        assertEquals("RUNTIME", outer.getValue("policy"));
+        assertNull(outer.getValue("missing"));
+        assertEquals(outer, snapshot(second, "a.Nested").getAnnotation("a.Outer"));
+    }
+
+    @Test
+    public void testMembers() throws Exception {
+        TypeSnapshot type = snapshot(first, "a.Nested");
+
+        assertEquals("java.util.AbstractList<T>", type.getSuperclass());
+        assertEquals(Arrays.asList("java.io.Serializable"), type.getInterfaces());
+        MemberSnapshot name = member(type, "NAME");
+        assertEquals(ElementKind.FIELD, name.getKind());
+        assertEquals("nested", name.getConstantValue());
+        assertEquals(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL), name.getModifiers());
+        MemberSnapshot get = member(type, "get");
+        assertEquals("T", get.getType());
+        assertEquals(Arrays.asList("index"), get.getParameterNames());
+        assertEquals(Arrays.asList("int"), get.getParameterTypes());
+        assertEquals("java.lang.Deprecated", get.getAnnotations().get(0).getAnnotationType());
+        assertNotEquals(get, member(type, "size"));
+        assertEquals("a.Nested.Child", type.getNestedTypes().get(0).getQualifiedName());
+        assertEquals("a.Nested$Child", type.getNestedTypes().get(0).getBinaryName());
+    }
+
+    @Test
+    public void testSignatures() throws Exception {
+        TypeSnapshot type = snapshot(first, "a.Signatures");
+
+        assertEquals(Arrays.asList("T extends java.lang.Number",
+                "U extends java.lang.Comparable<U> & java.io.Serializable"), type.getTypeParameters());
+        assertEquals(Arrays.asList("T"), snapshot(first, "a.Nested").getTypeParameters());
+        MemberSnapshot varArgs = member(type, "varArgs");
+        assertEquals(Arrays.asList("E extends java.lang.Exception"), varArgs.getTypeParameters());
+        assertTrue(varArgs.isVarArgs());
+        assertEquals(Arrays.asList("E", "java.io.IOException"), varArgs.getThrownTypes());
+        MemberSnapshot array = member(type, "array");
+        assertEquals(Collections.emptyList(), array.getTypeParameters());
+        assertFalse(array.isVarArgs());
+        assertEquals(Collections.emptyList(), array.getThrownTypes());
+        assertEquals(varArgs.getParameterTypes(), array.getParameterTypes());
+        assertEquals(varArgs, member(snapshot(second, "a.Signatures"), "varArgs"));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        TypeSnapshot original = snapshot(first, "a.Nested");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(original);
+        }
+        TypeSnapshot copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (TypeSnapshot) in.readObject();
+        }
+
+        assertEquals(original, copy);
+        assertEquals(original.hashCode(), copy.hashCode());
+        assertEquals(original.getSimpleName(), copy.getSimpleName());
+        assertEquals(original.getAnnotation("a.Outer").getValues(), copy.getAnnotation("a.Outer").getValues());
+        assertEquals(original.getMembers(), copy.getMembers());
+        assertEquals(original.getNestedTypes(), copy.getNestedTypes());
+    }
+
+    private static TypeSnapshot snapshot(Analysis analysis, String name) {
+        return TypeSnapshot.of(analysis.getType(name), analysis.getElements());
+    }
+
+    private static MemberSnapshot member(TypeSnapshot type, String name) {
+        for (MemberSnapshot each : type.getMembers()) {
+            if (each.getName().equals(name)) {
+                return each;
+            }
+        }
+        throw new AssertionError("No member " + name + " in " + type);
+    }
+
+    private static Map<String, Object> singletonValue(String name, Object value) {
+        return Collections.singletonMap(name, value);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.thatjoemoore.utils.annotations.test;
+
+import com.google.common.collect.ImmutableList;
+import com.sun.source.util.JavacTask;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The model of sources analyzed in memory, for testing code that works on {@code Element}s and {@code TypeMirror}s.
+ * The model stays usable for as long as this is referenced, but, like any compiler model, only from one thread at a
+ * time.
+ * <p>
+ * This lives with the tests, rather than beside {@link InMemoryCompiler}, since it needs javac's own API.
+ */
+@ParametersAreNonnullByDefault
+public final class Analysis {
+    private final Elements elements;
+    private final Types types;
+    private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+
+    private Analysis(Elements elements, Types types, List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        this.elements = elements;
+        this.types = types;
+        this.diagnostics = ImmutableList.copyOf(diagnostics);
+    }
+
+    /**
+     * Parses and attributes {@code sources} without generating anything or running processors, and returns the
+     * resulting model.
+     */
+    public static Analysis analyze(Iterable<? extends JavaFileObject> sources) {
+        return analyze(Collections.<String>emptyList(), sources);
+    }
+
+    /**
+     * Parses and attributes {@code sources} with extra javac {@code options}, such as {@code -classpath}, and returns
+     * the resulting model.
+     *
+     * @throws IllegalStateException if this JVM has no system Java compiler, or javac can't read the sources
+     */
+    public static Analysis analyze(Iterable<String> options, Iterable<? extends JavaFileObject> sources) {
+        requireNonNull(options, "options cannot be null");
+        requireNonNull(sources, "sources cannot be null");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No system Java compiler is available; this must run on a JDK");
+        }
+        List<String> allOptions = new ArrayList<>();
+        for (String each : options) {
+            allOptions.add(each);
+        }
+        allOptions.add("-proc:none");
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavacTask task = (JavacTask) compiler.getTask(null, null, diagnostics, allOptions, null, sources);
+        try {
+            task.analyze();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to read sources", ex);
+        }
+        return new Analysis(task.getElements(), task.getTypes(), diagnostics.getDiagnostics());
+    }
+
+    /**
+     * Returns a source file for the class {@code className}, with the given code.  The file name is derived from the
+     * class name, so use the top-level class' name.
+     */
+    public static JavaFileObject source(String className, final CharSequence code) {
+        requireNonNull(className, "className cannot be null");
+        requireNonNull(code, "code cannot be null");
+        return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    public Elements getElements() {
+        return elements;
+    }
+
+    public Types getTypes() {
+        return types;
+    }
+
+    /**
+     * Returns the type named {@code qualifiedName}, or null if there is no such type.
+     */
+    public TypeElement getType(String qualifiedName) {
+        return elements.getTypeElement(qualifiedName);
+    }
+
+    /**
+     * Returns everything javac reported while analyzing, in the order it reported it.
+     */
+    public List<Diagnostic<? extends JavaFileObject>> getDiagnostics() {
+        return diagnostics;
+    }
+}
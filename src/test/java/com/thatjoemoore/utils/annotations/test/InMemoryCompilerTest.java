@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 Joseph Moore
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.thatjoemoore.utils.annotations.test;
+
+import com.thatjoemoore.utils.annotations.AbstractShardedAnalyzer;
+import com.thatjoemoore.utils.annotations.AbstractWriter;
+import com.thatjoemoore.utils.annotations.AnalyzeAndWriteProcessor;
+import com.thatjoemoore.utils.annotations.AnnotationSnapshot;
+import com.thatjoemoore.utils.annotations.ProcessorOptions;
+import com.thatjoemoore.utils.annotations.TypeSnapshot;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InMemoryCompilerTest {
+
+    private static final JavaFileObject GEN = InMemoryCompiler.source("example.Gen", ""
+            + "package example;\n"
+            + "public @interface Gen {\n"
+            + "    String value();\n"
+            + "}\n");
+
+    private InMemoryCompiler compiler;
+
+    @Before
+    public void setUp() throws Exception {
+        compiler = new InMemoryCompiler();
+    }
+
+    @Test
+    public void testCompile_noProcessors() throws Exception {
+        Compilation result = compiler.compile(Collections.singletonList(InMemoryCompiler.source("example.Plain", ""
+                + "package example;\n"
+                + "public class Plain {}\n")));
+
+        assertTrue(result.succeeded());
+        assertTrue(result.getDiagnostics().isEmpty());
+        assertNotNull(result.getClassFile("example.Plain"));
+        assertEquals(1, result.getFiles().size());
+        assertTrue(result.getWallNanos() > 0);
+    }
+
+    @Test
+    public void testCompile_syntaxError() throws Exception {
+        Compilation result = compiler.compile(Collections.singletonList(InMemoryCompiler.source("example.Broken", ""
+                + "package example;\n"
+                + "public class Broken {\n")));
+
+        assertFalse(result.succeeded());
+        assertEquals(1, result.getDiagnostics(Diagnostic.Kind.ERROR).size());
+        assertEquals(2, result.getDiagnostics(Diagnostic.Kind.ERROR).get(0).getLineNumber());
+        assertNull(result.getClassFile("example.Broken"));
+    }
+
+    @Test
+    public void testCompile_generatedSource() throws Exception {
+        Compilation result = compiler.compile(Arrays.asList(GEN, InMemoryCompiler.source("example.Foo", ""
+                + "package example;\n"
+                + "@Gen(\"hello\")\n"
+                + "public interface Foo {\n"
+                + "    String name();\n"
+                + "}\n")), new ConstantsProcessor());
+
+        assertTrue(result.getDiagnostics().toString(), result.succeeded());
+        assertEquals(""
+                + "package example;\n"
+                + "public final class FooConstants {\n"
+                + "    public static final String VALUE = \"hello\";\n"
+                + "    public static final int MEMBERS = 1;\n"
+                + "}\n", result.getGeneratedSource("example.FooConstants"));
+        // The generated source was compiled in the next round
+        assertNotNull(result.getClassFile("example.FooConstants"));
+        assertNotNull(result.getClassFile("example.Foo"));
+    }
+
+    @Test
+    public void testCompile_processorError() throws Exception {
+        Compilation result = compiler.compile(Arrays.asList(GEN, InMemoryCompiler.source("example.Foo", ""
+                + "package example;\n"
+                + "@Gen(\"hello\")\n"
+                + "public class Foo {}\n")), new ConstantsProcessor());
+
+        assertFalse(result.succeeded());
+        assertEquals(Collections.singletonList("example.Foo must be an interface"), result.getMessages(Diagnostic.Kind.ERROR));
+        assertNull(result.getGeneratedSource("example.FooConstants"));
+    }
+
+    @Test
+    public void testCompile_options() throws Exception {
+        Compilation result = compiler.compile(Collections.singletonList("-A" + ProcessorOptions.TIMING + "=json"),
+                Arrays.asList(GEN, InMemoryCompiler.source("example.Foo", ""
+                        + "package example;\n"
+                        + "@Gen(\"hello\")\n"
+                        + "public interface Foo {}\n")), new ConstantsProcessor());
+
+        assertTrue(result.getDiagnostics().toString(), result.succeeded());
+        byte[] report = result.getResource(StandardLocation.SOURCE_OUTPUT,
+                "annotationutils-timing/" + ConstantsProcessor.class.getName() + ".json");
+        assertNotNull(result.getFiles().keySet().toString(), report);
+        assertTrue(new String(report, "UTF-8").startsWith("{\"processor\":\"" + ConstantsProcessor.class.getName() + "\""));
+    }
+
+    @Test
+    public void testCompile_diagnosticsReport() throws Exception {
+        Compilation result = compiler.compile(Collections.singletonList("-A" + ProcessorOptions.LOG_REPORT + "=jsonl"),
+                Arrays.asList(GEN, InMemoryCompiler.source("example.Foo", ""
+                        + "package example;\n"
+                        + "@Gen(\"hello\")\n"
+                        + "public class Foo {}\n")), new ConstantsProcessor());
+
+        assertFalse(result.succeeded());
+        byte[] report = result.getResource(StandardLocation.SOURCE_OUTPUT,
+                "annotationutils-diagnostics/" + ConstantsProcessor.class.getName() + ".jsonl");
+        assertNotNull(result.getFiles().keySet().toString(), report);
+        assertEquals("{\"level\":\"error\",\"message\":\"example.Foo must be an interface\",\"element\":\"example.Foo\","
+                + "\"annotation\":null,\"value\":null}\n", new String(report, "UTF-8"));
+    }
+
+    @Test
+    public void testCompile_timingInDiagnosticsReport() throws Exception {
+        Compilation result = compiler.compile(Arrays.asList("-A" + ProcessorOptions.LOG_REPORT + "=jsonl",
+                "-A" + ProcessorOptions.TIMING + "=log"), Arrays.asList(GEN, InMemoryCompiler.source("example.Foo", ""
+                + "package example;\n"
+                + "@Gen(\"hello\")\n"
+                + "public interface Foo {}\n")), new ConstantsProcessor());
+
+        assertTrue(result.getDiagnostics().toString(), result.succeeded());
+        List<String> notes = result.getMessages(Diagnostic.Kind.NOTE);
+        byte[] report = result.getResource(StandardLocation.SOURCE_OUTPUT,
+                "annotationutils-diagnostics/" + ConstantsProcessor.class.getName() + ".jsonl");
+        assertNotNull(result.getFiles().keySet().toString(), report);
+        String[] lines = new String(report, "UTF-8").split("\n");
+        // One timing note per round, the last of them logged in the round where processing is over
+        assertEquals(notes.size(), lines.length);
+        assertTrue(notes.size() >= 2);
+        assertTrue(lines[lines.length - 1], lines[lines.length - 1].startsWith(
+                "{\"level\":\"note\",\"message\":\"" + ConstantsProcessor.class.getName() + " "));
+    }
+
+    @Test
+    public void testCompile_reused() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Compilation result = compiler.compile(Collections.singletonList(InMemoryCompiler.source("example.Plain" + i, ""
+                    + "package example;\n"
+                    + "public class Plain" + i + " {}\n")));
+
+            assertTrue(result.succeeded());
+            assertEquals(1, result.getFiles().size());
+            assertNotNull(result.getClassFile("example.Plain" + i));
+        }
+    }
+
+    /**
+     * Generates a class of constants for every interface annotated with {@code @example.Gen}, using snapshots of the
+     * real elements.
+     */
+    @SupportedAnnotationTypes("example.Gen")
+    public static class ConstantsProcessor extends AnalyzeAndWriteProcessor<List<TypeSnapshot>> {
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        protected Analyzer<List<TypeSnapshot>> getAnalyzer() {
+            return null;
+        }
+
+        @Override
+        protected ShardedAnalyzer<?, List<TypeSnapshot>> getShardedAnalyzer() {
+            return new AbstractShardedAnalyzer<List<TypeSnapshot>, List<TypeSnapshot>>() {
+                @Override
+                public List<TypeSnapshot> analyze(List<TypeSnapshot> shard) {
+                    List<TypeSnapshot> result = new ArrayList<>();
+                    for (TypeSnapshot each : shard) {
+                        if (each.getAnnotation("example.Gen") != null) {
+                            result.add(each);
+                        }
+                    }
+                    return result;
+                }
+
+                @Override
+                public List<TypeSnapshot> merge(List<List<TypeSnapshot>> partials) {
+                    List<TypeSnapshot> result = new ArrayList<>();
+                    for (List<TypeSnapshot> each : partials) {
+                        result.addAll(each);
+                    }
+                    return result;
+                }
+            };
+        }
+
+        @Override
+        protected Writer<List<TypeSnapshot>> getWriter() {
+            return new AbstractWriter<List<TypeSnapshot>>() {
+                @Override
+                public boolean write(List<TypeSnapshot> blueprint) {
+                    for (TypeSnapshot each : blueprint) {
+                        TypeElement element = elements().getTypeElement(each.getQualifiedName());
+                        if (each.getKind() != ElementKind.INTERFACE) {
+                            logger().error(each.getQualifiedName() + " must be an interface", element);
+                            continue;
+                        }
+                        AnnotationSnapshot gen = each.getAnnotation("example.Gen");
+                        try (java.io.Writer out = filer().createSourceFile(each.getQualifiedName() + "Constants", element).openWriter()) {
+                            out.write("package example;\n"
+                                    + "public final class " + each.getSimpleName() + "Constants {\n"
+                                    + "    public static final String VALUE = \"" + gen.getValue("value") + "\";\n"
+                                    + "    public static final int MEMBERS = " + each.getMembers().size() + ";\n"
+                                    + "}\n");
+                        } catch (IOException ex) {
+                            logger().fatal(ex.toString(), element);
+                        }
+                    }
+                    return true;
+                }
+            };
+        }
+    }
+}